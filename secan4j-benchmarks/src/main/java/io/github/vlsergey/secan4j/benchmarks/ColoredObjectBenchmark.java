@@ -0,0 +1,68 @@
+package io.github.vlsergey.secan4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.colored.Confidence;
+import io.github.vlsergey.secan4j.core.colored.OmittedTraceItem;
+import io.github.vlsergey.secan4j.core.colored.PaintedColor;
+import io.github.vlsergey.secan4j.core.colored.SeenClasses;
+
+/**
+ * Operations on colors those are executed for every touched data node
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ColoredObjectBenchmark {
+
+	private ColoredObject[] arguments;
+
+	private ColoredObject sink;
+
+	private ColoredObject source;
+
+	private ColoredObject widerSource;
+
+	@Benchmark
+	public void demultiplex(final Blackhole blackhole) {
+		ColoredObject.demultiplex(arguments, blackhole::consume);
+	}
+
+	@Benchmark
+	public ColoredObject merge() {
+		return ColoredObject.merge(source, widerSource, (a, b) -> {
+			throw new AssertionError("Source shall not intersect with itself");
+		});
+	}
+
+	@Benchmark
+	public ColoredObject mergeToMostDangerous() {
+		return ColoredObject.mergeToMostDangerous(source, sink);
+	}
+
+	@Setup
+	public void setup() {
+		source = ColoredObject.of(PaintedColor.of(Confidence.EXPLICITLY, OmittedTraceItem.INSTANCE,
+				ColorType.SourceData), SeenClasses.of("java.lang.String"));
+		sink = ColoredObject.of(PaintedColor.of(Confidence.ASSUMED, OmittedTraceItem.INSTANCE, ColorType.SinkData),
+				SeenClasses.of("java.lang.CharSequence", "java.lang.Object", "java.lang.String"));
+		widerSource = source.withSeenClassesHere(sink.getSeenClassesHere());
+
+		// 3 * 3 * 3 combinations
+		arguments = new ColoredObject[] { sink, null, sink, sink };
+	}
+
+}
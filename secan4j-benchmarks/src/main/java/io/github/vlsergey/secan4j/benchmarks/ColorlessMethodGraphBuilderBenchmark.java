@@ -0,0 +1,54 @@
+package io.github.vlsergey.secan4j.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vlsergey.secan4j.benchmarks.fixtures.ExampleController;
+import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
+import io.github.vlsergey.secan4j.core.colorless.ColorlessMethodGraphBuilder;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.NotFoundException;
+
+/**
+ * Building of colorless graph of single method from bytecode
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ColorlessMethodGraphBuilderBenchmark {
+
+	private ClassPool classPool;
+
+	private CtClass ctClass;
+
+	private CtMethod ctMethod;
+
+	@Param({ "search", "sqlInjection" })
+	private String methodName;
+
+	@Benchmark
+	public Optional<BlockDataGraph> buildGraph() {
+		return new ColorlessMethodGraphBuilder(classPool, ctClass, ctMethod).buildGraph();
+	}
+
+	@Setup
+	public void setup() throws NotFoundException {
+		classPool = ClassPool.getDefault();
+		ctClass = classPool.get(ExampleController.class.getName());
+		ctMethod = ctClass.getDeclaredMethod(methodName);
+	}
+
+}
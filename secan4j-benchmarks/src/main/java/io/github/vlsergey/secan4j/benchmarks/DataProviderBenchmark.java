@@ -0,0 +1,53 @@
+package io.github.vlsergey.secan4j.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vlsergey.secan4j.data.DataProvider;
+
+/**
+ * Lookups of configuration data as done by brushes for every invocation and
+ * field access. Data of classes is cached by provider after first lookup,
+ * unless all configuration is preloaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DataProviderBenchmark {
+
+	private DataProvider dataProvider;
+
+	@Param({ "false", "true" })
+	private boolean preload;
+
+	@Benchmark
+	public Set<Class<?>>[] configuredMethodArguments() {
+		return dataProvider.getForMethodArguments("java.sql.Connection", "prepareStatement",
+				"(Ljava/lang/String;)Ljava/sql/PreparedStatement;");
+	}
+
+	@Benchmark
+	public Set<Class<?>> notConfiguredMethodResult() {
+		return dataProvider.getForMethodResult("java.util.ArrayList", "get", "(I)Ljava/lang/Object;");
+	}
+
+	@Setup
+	public void setup() {
+		dataProvider = new DataProvider();
+		if (preload) {
+			dataProvider.preload();
+		}
+	}
+
+}
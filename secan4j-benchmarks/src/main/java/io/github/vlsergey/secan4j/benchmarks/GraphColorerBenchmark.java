@@ -0,0 +1,79 @@
+package io.github.vlsergey.secan4j.benchmarks;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vlsergey.secan4j.benchmarks.fixtures.ExampleController;
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.colored.GraphColorer;
+import io.github.vlsergey.secan4j.core.colored.brushes.CompositionNodeBrush;
+import io.github.vlsergey.secan4j.core.colored.brushes.CopierBrush;
+import io.github.vlsergey.secan4j.core.colored.brushes.InvocationsImplicitColorer;
+import io.github.vlsergey.secan4j.core.colored.brushes.InvokeDynamicBrush;
+import io.github.vlsergey.secan4j.core.colored.brushes.MethodParameterImplicitColorer;
+import io.github.vlsergey.secan4j.core.colored.brushes.ParentAttributesDefinerBrush;
+import io.github.vlsergey.secan4j.core.user2command.UserToCommandInjectionColorer;
+import io.github.vlsergey.secan4j.data.DataProvider;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.NotFoundException;
+
+/**
+ * Coloring of single method up to fixpoint. Colorless graph is built once
+ * during warmup and taken from cache of {@link GraphColorer} afterwards. Calls
+ * to other methods are not analyzed, because there is no session to go deeper
+ * with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GraphColorerBenchmark {
+
+	private CtClass ctClass;
+
+	private CtMethod ctMethod;
+
+	private GraphColorer graphColorer;
+
+	@Param({ "search", "sqlInjection" })
+	private String methodName;
+
+	@Param({ "false", "true" })
+	private boolean traceFree;
+
+	@Benchmark
+	public Optional<ColoredObject[][]> color() {
+		return graphColorer.color(ctClass, ctMethod, null, null, (source, sink) -> {
+		});
+	}
+
+	@Setup
+	public void setup() throws NotFoundException {
+		final ClassPool classPool = ClassPool.getDefault();
+		ctClass = classPool.get(ExampleController.class.getName());
+		ctMethod = ctClass.getDeclaredMethod(methodName);
+
+		final DataProvider dataProvider = new DataProvider();
+		final UserToCommandInjectionColorer colorProvider = new UserToCommandInjectionColorer(dataProvider);
+		graphColorer = new GraphColorer(
+				Arrays.asList(new InvocationsImplicitColorer(classPool, colorProvider),
+						new MethodParameterImplicitColorer(colorProvider)),
+				Arrays.asList(new CompositionNodeBrush(), new CopierBrush(dataProvider),
+						new ParentAttributesDefinerBrush(dataProvider), new InvokeDynamicBrush()),
+				GraphColorer.DEFAULT_METHOD_GRAPHS_CACHE_WEIGHT, traceFree);
+	}
+
+}
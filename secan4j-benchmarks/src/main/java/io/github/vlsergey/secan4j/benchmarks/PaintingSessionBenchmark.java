@@ -0,0 +1,65 @@
+package io.github.vlsergey.secan4j.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.vlsergey.secan4j.benchmarks.fixtures.ExampleController;
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.session.PaintingSession;
+import io.github.vlsergey.secan4j.core.session.PaintingSessionSettings;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.NotFoundException;
+
+/**
+ * End-to-end analysis of all entry points of {@link ExampleController} by new
+ * session, including callees and reporting of findings
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PaintingSessionBenchmark {
+
+	private ClassPool classPool;
+
+	private List<CtBehavior> entryPoints;
+
+	@Param({ "1", "4" })
+	private int parallelism;
+
+	@Param({ "false", "true" })
+	private boolean traceFree;
+
+	@Benchmark
+	public Map<CtBehavior, ColoredObject[][]> analyze(final Blackhole blackhole)
+			throws ExecutionException, InterruptedException {
+		final PaintingSessionSettings settings = new PaintingSessionSettings().setParallelism(parallelism)
+				.setTraceFree(traceFree);
+		return new PaintingSession(classPool, (source, sink) -> blackhole.consume(sink), settings)
+				.analyze(entryPoints);
+	}
+
+	@Setup
+	public void setup() throws NotFoundException {
+		classPool = ClassPool.getDefault();
+		final CtClass ctClass = classPool.get(ExampleController.class.getName());
+		entryPoints = Arrays.asList(ctClass.getDeclaredMethod("search"), ctClass.getDeclaredMethod("sqlInjection"));
+	}
+
+}
@@ -0,0 +1,65 @@
+package io.github.vlsergey.secan4j.benchmarks.fixtures;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Controller with typical source-sink flows used as analysis subject by
+ * benchmarks
+ */
+public class ExampleController {
+
+	@Autowired
+	private DataSource dataSource;
+
+	private String buildQuery(final String table, final List<String> conditions) {
+		final StringBuilder builder = new StringBuilder("SELECT 1 FROM ").append(table);
+		for (int i = 0; i < conditions.size(); i++) {
+			builder.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i));
+		}
+		return builder.toString();
+	}
+
+	@GetMapping
+	public int search(@RequestParam String name, @RequestParam String city, @RequestParam int limit)
+			throws SQLException {
+		final List<String> conditions = new ArrayList<>();
+		if (name != null) {
+			conditions.add("name='" + name + "'");
+		}
+		if (city != null) {
+			conditions.add("city='" + city + "'");
+		}
+
+		int found = 0;
+		try (final Connection c = dataSource.getConnection();
+				final PreparedStatement ps = c.prepareStatement(buildQuery("users", conditions));
+				final ResultSet rs = ps.executeQuery()) {
+			while (rs.next() && found < limit) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@GetMapping
+	public boolean sqlInjection(@RequestParam String userLogin, @RequestParam String userPassword) throws SQLException {
+		try (final Connection c = dataSource.getConnection();
+				final PreparedStatement ps = c.prepareStatement("SELECT 1 FROM users WHERE userLogin='" + userLogin
+						+ "' AND userPassword='" + userPassword + "'");
+				final ResultSet rs = ps.executeQuery()) {
+			return rs.next();
+		}
+	}
+
+}
@@ -4,23 +4,38 @@ import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Predicate;
 
+import javax.management.ObjectName;
+
+import io.github.vlsergey.secan4j.core.findings.FindingsFormat;
+import io.github.vlsergey.secan4j.core.findings.StreamingFindingsWriter;
 import io.github.vlsergey.secan4j.core.session.IntesectionsCollector;
 import io.github.vlsergey.secan4j.core.session.PaintingSession;
+import io.github.vlsergey.secan4j.core.session.PaintingSessionSettings;
+import io.github.vlsergey.secan4j.data.ConfigurationWatcher;
 import javassist.ClassPool;
 import javassist.CtMethod;
 import javassist.LoaderClassPath;
 import picocli.CommandLine;
 import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 public class Secan4j {
 
@@ -44,19 +59,109 @@ public class Secan4j {
 			@Option(names = { "--basePackage" }, description = "Base package to scan for entry points")
 			private String basePackage;
 
+			@Option(names = {
+					"--cacheDir" }, description = "Directory to store analysis results of methods between runs (default: no caching)")
+			private Path cacheDir;
+
+			@Option(names = {
+					"--config" }, description = "Directory or jar with additional configuration files (*.yaml), may be repeated. Files replace built-in ones with the same name.")
+			private List<Path> configurationSources = new ArrayList<>();
+
+			@Option(names = {
+					"--format" }, description = "Format of findings written to --output file: ${COMPLETION-CANDIDATES} (default: JSONL)")
+			private FindingsFormat format = FindingsFormat.JSONL;
+
+			@Option(names = {
+					"--maxContextsPerMethod" }, description = "Maximum number of distinct call contexts to analyze each method with, others are analyzed using parametric summary (default: unlimited)")
+			private int maxContextsPerMethod = Integer.MAX_VALUE;
+
+			@Option(names = {
+					"--output" }, description = "File to write findings to as soon as they are found (default: print all findings to stderr after analysis)")
+			private Path output;
+
+			@Option(names = {
+					"--parametricSummaries" }, description = "Analyze each method once per argument instead of once per call context (faster, less precise)")
+			private boolean parametricSummaries;
+
+			@Option(names = {
+					"--traceFree" }, description = "Search for findings without traces first, then reanalyze only entry points with findings to get their traces")
+			private boolean traceFree;
+
+			@Option(names = {
+					"--threads" }, description = "Number of threads to analyze methods with (default: number of available processors)")
+			private int threads = Runtime.getRuntime().availableProcessors();
+
+			@Spec
+			private CommandSpec spec;
+
+			@Option(names = {
+					"--watch" }, description = "Keep running after analysis and reanalyze entry points every time files of --config sources are changed. Only findings of reanalyzed methods are printed after reanalysis. Can't be used with --output.")
+			private boolean watch;
+
 			@Parameters(index = "0", arity = "1", description = "Application classpath to scan (URLs)", converter = ClassPathStringConverter.class)
 			private List<URL[]> classPath;
 
+			/**
+			 * Analyzes entry points with session metrics available via JMX during
+			 * analysis and printed after it. With {@link #watch} reanalyzes them every
+			 * time configuration is changed, until process is terminated. Only tasks
+			 * affected by changed configuration are executed again, so only their
+			 * findings are reported after reanalysis.
+			 */
+			private void analyze(final PaintingSession session, final List<CtMethod> entryPoints,
+					final Runnable afterAnalysis) throws Exception {
+				if (!watch) {
+					analyzeOnce(session, entryPoints);
+					afterAnalysis.run();
+					return;
+				}
+
+				final BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+				session.getDataProvider().addChangeListener(changes::add);
+				try (ConfigurationWatcher watcher = new ConfigurationWatcher(session.getDataProvider())) {
+					while (true) {
+						analyzeOnce(session, entryPoints);
+						afterAnalysis.run();
+
+						System.err.println("Waiting for configuration changes...");
+						final Set<String> packages = changes.take();
+						changes.clear();
+						System.err.println("Configuration of " + packages + " was changed, reanalyze entry points. "
+								+ "Only findings of reanalyzed methods will be reported, "
+								+ "findings of other methods are still valid.");
+					}
+				}
+			}
+
+			private void analyzeOnce(final PaintingSession session, final List<CtMethod> entryPoints)
+					throws Exception {
+				final ObjectName metricsName = session.getMetrics().registerMBean();
+				try {
+					session.analyze(entryPoints);
+				} finally {
+					ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+					System.err.println(session.getMetrics());
+				}
+			}
+
 			@Override
 			public Integer call() throws Exception {
+				// findings file is complete only when writer is closed, and reanalysis reports
+				// only findings of reexecuted methods
+				if (watch && output != null) {
+					throw new ParameterException(spec.commandLine(), "--watch can't be used with --output");
+				}
+
 				final URL[] wholeClassPath = classPath.stream().flatMap(cp -> Arrays.stream(cp)).toArray(URL[]::new);
 				final URLClassLoader classLoader = new URLClassLoader(wholeClassPath);
 
 				final ClassPool classPool = new ClassPool(true);
 				classPool.insertClassPath(new LoaderClassPath(classLoader));
 
-				final IntesectionsCollector intesectionsCollector = new IntesectionsCollector();
-				final PaintingSession paintingSession = new PaintingSession(classPool, intesectionsCollector);
+				final PaintingSessionSettings settings = new PaintingSessionSettings().setParallelism(threads)
+						.setSummaryCacheDirectory(cacheDir).setParametricSummaries(parametricSummaries)
+						.setMaxContextsPerMethod(maxContextsPerMethod).setTraceFree(traceFree)
+						.setConfigurationSources(configurationSources);
 
 				final Predicate<CtMethod> methodPredicate = new MethodHasAnnotationPredicate(
 						new AnnotatedByGraph(classPool), "org.springframework.web.bind.annotation.Mapping");
@@ -64,22 +169,35 @@ public class Secan4j {
 				final List<CtMethod> entryPoints = new ClassPathScannerFacade<CtMethod>(basePackage, wholeClassPath,
 						classPool, ctClass -> Arrays.stream(ctClass.getMethods()).filter(methodPredicate)).scan()
 								.collect(toList());
-				for (CtMethod ctMethod : entryPoints) {
-					paintingSession.analyze(ctMethod);
+
+				if (output != null) {
+					try (StreamingFindingsWriter findingsWriter = new StreamingFindingsWriter(output, format)) {
+						analyze(new PaintingSession(classPool, findingsWriter, settings), entryPoints, () -> {
+						});
+						return findingsWriter.getFindingsCount();
+					}
 				}
 
-				intesectionsCollector.getTraces().values().forEach(traceList -> {
-					System.err.println(
-							"Found source-sink link with following trace:\n" + traceList.stream().map(traceItem -> {
-								StringBuilder builder = new StringBuilder("* ");
-								builder.append(Optional
-										.ofNullable(traceItem.getSourceCodePosition()).map(scp -> scp.getClassName()
-												+ ":" + scp.getMethodName() + ":" + scp.getSourceLine())
-										.orElse("(no source code position)"));
-								builder.append(" ");
-								builder.append(traceItem.getMessage());
-								return builder.toString();
-							}).collect(joining("\n")));
+				final IntesectionsCollector intesectionsCollector = new IntesectionsCollector();
+				analyze(new PaintingSession(classPool, intesectionsCollector, settings), entryPoints, () -> {
+					intesectionsCollector.getTraces().values().forEach(traceList -> {
+						System.err.println(
+								"Found source-sink link with following trace:\n" + traceList.stream().map(traceItem -> {
+									StringBuilder builder = new StringBuilder("* ");
+									builder.append(Optional
+											.ofNullable(traceItem.getSourceCodePosition()).map(scp -> scp.getClassName()
+													+ ":" + scp.getMethodName() + ":" + scp.getSourceLine())
+											.orElse("(no source code position)"));
+									builder.append(" ");
+									builder.append(traceItem.getMessage());
+									return builder.toString();
+								}).collect(joining("\n")));
+					});
+					if (watch) {
+						// next analysis reexecutes only affected methods, report only their
+						// findings
+						intesectionsCollector.getTraces().clear();
+					}
 				});
 
 				return intesectionsCollector.getTraces().size();
@@ -0,0 +1,101 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.github.vlsergey.secan4j.core.colorless.DataNode;
+import lombok.NonNull;
+
+/**
+ * {@link ColorStore} backed by array indexed by {@link DataNode#getIndex()}.
+ * Also tracks indexes of nodes changed since last {@link #clear()}.
+ */
+@NotThreadSafe
+public class ArrayColorStore implements ColorStore {
+
+	private final @NonNull BitSet changed;
+
+	private final @NonNull ColoredObject[] colors;
+
+	private final @NonNull DataNode[] nodes;
+
+	private int size = 0;
+
+	/**
+	 * Creates independent copy of store, including indexes of changed nodes, so
+	 * {@link #clear()} of copy removes all copied colors
+	 */
+	public ArrayColorStore(final @NonNull ArrayColorStore copyFrom) {
+		this.changed = (BitSet) copyFrom.changed.clone();
+		this.colors = copyFrom.colors.clone();
+		this.nodes = copyFrom.nodes;
+		this.size = copyFrom.size;
+	}
+
+	/**
+	 * @param allNodes all nodes of the method graph, see
+	 *                 {@link io.github.vlsergey.secan4j.core.colorless.BlockDataGraph#getAllNodes()}
+	 */
+	public ArrayColorStore(final @NonNull DataNode[] allNodes) {
+		this.changed = new BitSet();
+		this.colors = new ColoredObject[allNodes.length];
+		this.nodes = allNodes;
+	}
+
+	/**
+	 * Removes all colors. Takes time proportional to number of changed nodes, so
+	 * shall be used only for stores those are filled by {@link #put(DataNode, ColoredObject)}
+	 */
+	public void clear() {
+		for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+			colors[i] = null;
+		}
+		changed.clear();
+		size = 0;
+	}
+
+	/**
+	 * Calls consumer for every node changed since last {@link #clear()} with its
+	 * current color
+	 */
+	public void forEachChanged(final @NonNull BiConsumer<DataNode, ColoredObject> consumer) {
+		for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+			consumer.accept(nodes[i], colors[i]);
+		}
+	}
+
+	@Override
+	public @Nullable ColoredObject get(final @NonNull DataNode node) {
+		assert nodes[node.getIndex()] == node : "Node " + node.getDescription() + " is not from this graph";
+		return colors[node.getIndex()];
+	}
+
+	public @NonNull BitSet getChanged() {
+		return changed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void put(final @NonNull DataNode node, final @NonNull ColoredObject color) {
+		final int index = node.getIndex();
+		assert nodes[index] == node : "Node " + node.getDescription() + " is not from this graph";
+		if (colors[index] == null) {
+			size++;
+		}
+		colors[index] = color;
+		changed.set(index);
+	}
+
+	@Override
+	public String toString() {
+		return "ArrayColorStore" + Arrays.toString(colors);
+	}
+
+}
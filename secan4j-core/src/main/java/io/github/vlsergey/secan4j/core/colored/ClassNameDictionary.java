@@ -0,0 +1,61 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.NonNull;
+
+/**
+ * JVM-wide dictionary of class names used by {@link SeenClasses}. Ids are
+ * assigned sequentially and are never reused, but they are not stable between
+ * runs, so they shall not be persisted.
+ */
+final class ClassNameDictionary {
+
+	private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+	/**
+	 * Written under lock before id is published via {@link #ids}, so any id
+	 * obtained from {@link #getId(String)} can be resolved without lock
+	 */
+	private static volatile String[] names = new String[256];
+
+	private static volatile SeenClasses[] singletons = new SeenClasses[256];
+
+	static int getId(final @NonNull String className) {
+		final Integer existing = ids.get(className);
+		if (existing != null) {
+			return existing.intValue();
+		}
+
+		synchronized (ids) {
+			final Integer another = ids.get(className);
+			if (another != null) {
+				return another.intValue();
+			}
+
+			final int id = ids.size();
+			if (id == names.length) {
+				names = Arrays.copyOf(names, id * 2);
+				singletons = Arrays.copyOf(singletons, id * 2);
+			}
+			names[id] = className.intern();
+			singletons[id] = new SeenClasses(new int[] { id });
+			ids.put(className, id);
+			return id;
+		}
+	}
+
+	static @NonNull String getName(final int id) {
+		return names[id];
+	}
+
+	static @NonNull SeenClasses getSingleton(final int id) {
+		return singletons[id];
+	}
+
+	private ClassNameDictionary() {
+	}
+
+}
@@ -1,7 +1,5 @@
 package io.github.vlsergey.secan4j.core.colored;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.BiConsumer;
 
 import javax.annotation.Nullable;
@@ -21,14 +19,14 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ColorApplier implements BiConsumer<DataNode, ColoredObject> {
 
-	private final @NonNull Map<DataNode, ColoredObject> newColors = new HashMap<>(1);
-	private final @NonNull Map<DataNode, ColoredObject> oldColors;
-	private final @NonNull BiConsumer<PaintedColor, PaintedColor> problemsReporter;
-
-	public ColorApplier(final @NonNull Map<DataNode, ColoredObject> oldColors,
+	/**
+	 * @return reporter of intersections found by
+	 *         {@link ColoredObject#merge(ColoredObject, ColoredObject, BiConsumer)}
+	 *         that passes source trace first
+	 */
+	public static @NonNull BiConsumer<PaintedColor, PaintedColor> toProblemsReporter(
 			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
-		this.oldColors = oldColors;
-		this.problemsReporter = (a, b) -> {
+		return (a, b) -> {
 			if (a.getType() == ColorType.SinkData) {
 				onSourceSinkIntersection.accept(b.getSrc(), a.getSrc());
 			} else {
@@ -37,11 +35,40 @@ public class ColorApplier implements BiConsumer<DataNode, ColoredObject> {
 		};
 	}
 
+	private final @NonNull ArrayColorStore newColors;
+	private final @NonNull ColorStore oldColors;
+	private final @NonNull BiConsumer<PaintedColor, PaintedColor> problemsReporter;
+	private final boolean traceFree;
+
+	public ColorApplier(final @NonNull DataNode[] allNodes, final @NonNull ColorStore oldColors,
+			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
+		this(allNodes, oldColors, onSourceSinkIntersection, false);
+	}
+
+	/**
+	 * @param allNodes  all nodes of the method graph, used to allocate store of
+	 *                  new colors. Applier can be reused for several rounds of
+	 *                  coloring by clearing {@link #getNewColors()}.
+	 * @param traceFree replace traces of new colors with
+	 *                  {@link OmittedTraceItem}, so colors those differ only by
+	 *                  trace are not applied again and again
+	 */
+	public ColorApplier(final @NonNull DataNode[] allNodes, final @NonNull ColorStore oldColors,
+			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection, final boolean traceFree) {
+		this.newColors = new ArrayColorStore(allNodes);
+		this.oldColors = oldColors;
+		this.traceFree = traceFree;
+		this.problemsReporter = toProblemsReporter(onSourceSinkIntersection);
+	}
+
 	@Override
-	public void accept(final @NonNull DataNode dataNode, final @Nullable ColoredObject newColor) {
+	public void accept(final @NonNull DataNode dataNode, @Nullable ColoredObject newColor) {
 		if (newColor == null) {
 			return;
 		}
+		if (traceFree) {
+			newColor = newColor.withoutTrace();
+		}
 
 		final @Nullable ColoredObject oldNewColor = newColors.get(dataNode);
 		if (oldNewColor != null) {
@@ -0,0 +1,18 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import javax.annotation.Nullable;
+
+import io.github.vlsergey.secan4j.core.colorless.DataNode;
+import lombok.NonNull;
+
+/**
+ * Colors of nodes of single method graph, see {@link DataNode#getIndex()}
+ */
+public interface ColorStore {
+
+	@Nullable
+	ColoredObject get(@NonNull DataNode node);
+
+	boolean isEmpty();
+
+}
@@ -1,10 +1,8 @@
 package io.github.vlsergey.secan4j.core.colored;
 
-import static java.util.Collections.singleton;
-
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -12,17 +10,30 @@ import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
-import io.github.vlsergey.secan4j.core.utils.SetUtils;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 import javassist.CtClass;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.With;
+import lombok.ToString;
+
+/**
+ * Immutable color of the value together with classes the value was seen as.
+ * Instances are canonical: structurally equal objects created by factory
+ * methods (or deserialized) are the same instance, so equality check is usually
+ * reduced to identity or cached hash comparison.
+ */
+@Getter
+@ToString
+public final class ColoredObject implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
-@Data
-public class ColoredObject {
+	private static final Interner<ColoredObject> INTERNER = Interners.newWeakInterner();
+
+	private static final Interner<SeenClasses> SEEN_CLASSES_INTERNER = Interners.newWeakInterner();
 
 	private static void demultiplex(final @NonNull ColoredObject[] src, final @NonNull ColoredObject[] buffer,
 			int pointer, final @NonNull Consumer<@NonNull ColoredObject[]> consumer) {
@@ -49,8 +60,26 @@ public class ColoredObject {
 		demultiplex(src, Arrays.copyOf(src, src.length), 0, consumer);
 	}
 
+	/**
+	 * @return number of arrays {@link #demultiplex(ColoredObject[], Consumer)}
+	 *         will produce, saturated at {@link Long#MAX_VALUE}
+	 */
+	public static long demultiplexedCount(final @NonNull ColoredObject[] src) {
+		long count = 1;
+		for (ColoredObject co : src) {
+			if (co != null) {
+				final int size = co.getSeenClassesHere().size();
+				if (size != 0 && count > Long.MAX_VALUE / size) {
+					return Long.MAX_VALUE;
+				}
+				count *= size;
+			}
+		}
+		return count;
+	}
+
 	public static ColoredObject forRootOnly(final @NonNull CtClass cls, PaintedColor color) {
-		return new ColoredObject(color, singleton(cls.getName().intern()));
+		return of(color, SeenClasses.of(cls.getName()));
 	}
 
 	public static @NonNull ColoredObject merge(final @Nullable ColoredObject picA, final @Nullable ColoredObject picB,
@@ -64,7 +93,7 @@ public class ColoredObject {
 					return a;
 
 				problemReporter.accept(a, b);
-				return new PaintedColor(Confidence.min(a.getConfidence(), b.getConfidence()).max(Confidence.CALCULATED),
+				return PaintedColor.of(Confidence.min(a.getConfidence(), b.getConfidence()).max(Confidence.CALCULATED),
 						null, ColorType.Intersection);
 			}
 			return a.getConfidence().getValue() >= b.getConfidence().getValue() ? a : b;
@@ -82,9 +111,9 @@ public class ColoredObject {
 			return picB;
 
 		final @NonNull PaintedColor mergedColor = colorMerged.apply(picA.color, picB.color);
-		final @NonNull Set<String> mergedSeendClassesHere = SetUtils.join(picA.seenClassesHere, picB.seenClassesHere);
+		final @NonNull SeenClasses mergedSeendClassesHere = picA.seenClassesHere.union(picB.seenClassesHere);
 
-		return new ColoredObject(mergedColor, mergedSeendClassesHere);
+		return of(mergedColor, mergedSeendClassesHere);
 	}
 
 	/**
@@ -113,20 +142,34 @@ public class ColoredObject {
 		});
 	}
 
+	public static @NonNull ColoredObject of(final @NonNull PaintedColor color,
+			final @NonNull SeenClasses seenClassesHere) {
+		return INTERNER.intern(new ColoredObject(color, SEEN_CLASSES_INTERNER.intern(seenClassesHere)));
+	}
+
 	public static @NonNull ColoredObject sinkOnRoot(final TraceItem src, final @NonNull CtClass elementType,
 			final @NonNull Confidence confidence) {
-		return ColoredObject.forRootOnly(elementType, new PaintedColor(confidence, src, ColorType.SinkData));
+		return ColoredObject.forRootOnly(elementType, PaintedColor.of(confidence, src, ColorType.SinkData));
 	}
 
 	public static @NonNull ColoredObject sourceOnRoot(final TraceItem src, final @NonNull CtClass elementType,
 			final @NonNull Confidence confidence) {
-		return ColoredObject.forRootOnly(elementType, new PaintedColor(confidence, src, ColorType.SourceData));
+		return ColoredObject.forRootOnly(elementType, PaintedColor.of(confidence, src, ColorType.SourceData));
 	}
 
 	private final @NonNull PaintedColor color;
 
-	@With
-	private final @NonNull Set<String> seenClassesHere;
+	private final @NonNull SeenClasses seenClassesHere;
+
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
+	private final transient int hashCode;
+
+	private ColoredObject(final @NonNull PaintedColor color, final @NonNull SeenClasses seenClassesHere) {
+		this.color = color;
+		this.seenClassesHere = seenClassesHere;
+		this.hashCode = 31 * color.hashCode() + seenClassesHere.hashCode();
+	}
 
 	/**
 	 * Calls back multiple times -- one per each seen class (with value "limited" to
@@ -135,13 +178,50 @@ public class ColoredObject {
 	public void demultiplex(final @NonNull Consumer<@NonNull ColoredObject> consumer) {
 		// TODO: implement deeper demultiplexing
 		// TODO: filter fieldNodes basing on seen class
-		this.seenClassesHere.forEach(cls -> consumer.accept(this.withSeenClassesHere(singleton(cls))));
+		for (int i = 0; i < seenClassesHere.size(); i++) {
+			consumer.accept(this.withSeenClassesHere(seenClassesHere.getSingle(i)));
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ColoredObject)) {
+			return false;
+		}
+		final ColoredObject other = (ColoredObject) obj;
+		return hashCode == other.hashCode && color.equals(other.color)
+				&& seenClassesHere.equals(other.seenClassesHere);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	private Object readResolve() {
+		return of(color, seenClassesHere);
 	}
 
 	public ColoredObject withNewTraceItem(Function<TraceItem, TraceItem> traceItemUpdater) {
-		return new ColoredObject(
-				new PaintedColor(color.getConfidence(), traceItemUpdater.apply(color.getSrc()), color.getType()),
+		return of(PaintedColor.of(color.getConfidence(), traceItemUpdater.apply(color.getSrc()), color.getType()),
 				seenClassesHere);
 	}
 
+	/**
+	 * @return the same color with trace replaced by
+	 *         {@link OmittedTraceItem#INSTANCE}
+	 */
+	public @NonNull ColoredObject withoutTrace() {
+		return color.getSrc() == OmittedTraceItem.INSTANCE ? this
+				: of(PaintedColor.of(color.getConfidence(), OmittedTraceItem.INSTANCE, color.getType()),
+						seenClassesHere);
+	}
+
+	public ColoredObject withSeenClassesHere(final @NonNull SeenClasses seenClassesHere) {
+		return this.seenClassesHere.equals(seenClassesHere) ? this : of(color, seenClassesHere);
+	}
+
 }
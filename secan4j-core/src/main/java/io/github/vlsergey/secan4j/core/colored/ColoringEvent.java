@@ -0,0 +1,26 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of applying repeatable brushes to method graph until colors are
+ * stable. Method is known from enclosing task execution event of the same
+ * thread.
+ */
+@Category("secan4j")
+@Description("Propagation of colors over method graph")
+@Label("Coloring")
+@Name("io.github.vlsergey.secan4j.Coloring")
+class ColoringEvent extends Event {
+
+	@Label("Nodes")
+	int nodes;
+
+	@Label("Rounds")
+	int rounds;
+
+}
@@ -1,19 +1,26 @@
 package io.github.vlsergey.secan4j.core.colored;
 
-import static java.util.Collections.emptyMap;
-import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
 import io.github.vlsergey.secan4j.core.colored.brushes.ColorPaintBrush;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.ColorlessMethodGraphBuilder;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
+import io.github.vlsergey.secan4j.core.colorless.DataNodeUsages;
 import javassist.CtBehavior;
 import javassist.CtClass;
 import lombok.AllArgsConstructor;
@@ -21,39 +28,143 @@ import lombok.Data;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 
-@AllArgsConstructor
 public class GraphColorer {
 
-	private final @NonNull List<ColorPaintBrush> brushesInitial;
-
-	private final @NonNull List<ColorPaintBrush> brushesRepeatable;
-
 	@Data
 	private static final class InitialColoredMethodGraph {
 		private final BlockDataGraph colorlessGraph;
-		private final Map<DataNode, ColoredObject> initialColors;
+		private final DataNodeUsages colorlessGraphUsages;
+		private final ArrayColorStore initialColors;
 		private final DataNode[] methodParams;
 		private final DataNode[] methodReturns;
+		/**
+		 * Intersections (source and sink) found by initial brushes. Reported on
+		 * every coloring with initial colors, so reporting does not depend on
+		 * whether graph was cached or not.
+		 */
+		private final List<Map.Entry<TraceItem, TraceItem>> initialIntersections;
+	}
+
+	@AllArgsConstructor
+	@Data
+	private static final class MethodKey {
+		private final @NonNull String className;
+		private final @NonNull String methodName;
+		private final @NonNull String methodSignature;
+	}
+
+	/**
+	 * Default limit of {@link #methodGraphsCache} measured in number of data nodes
+	 */
+	public static final long DEFAULT_METHOD_GRAPHS_CACHE_WEIGHT = 1 << 20;
+
+	private final @NonNull List<ColorPaintBrush> brushesInitial;
+
+	private final @NonNull List<ColorPaintBrush> brushesRepeatable;
+
+	private final @NonNull LongAdder coloringRounds = new LongAdder();
+
+	private final @NonNull LongAdder graphBuildNanos = new LongAdder();
+
+	private final @NonNull LongAdder graphsBuilt = new LongAdder();
+
+	/**
+	 * Colorless graphs and initial colors do not depend on arguments colors, so
+	 * can be reused for every (re)coloring of the same method. Cache is bounded by
+	 * total number of data nodes in cached graphs.
+	 */
+	private final @NonNull Cache<MethodKey, Optional<InitialColoredMethodGraph>> methodGraphsCache;
+
+	/**
+	 * Traces of all colors are replaced with {@link OmittedTraceItem}, see
+	 * {@link ColoredObject#withoutTrace()}
+	 */
+	private final boolean traceFree;
+
+	public GraphColorer(final @NonNull List<ColorPaintBrush> brushesInitial,
+			final @NonNull List<ColorPaintBrush> brushesRepeatable) {
+		this(brushesInitial, brushesRepeatable, DEFAULT_METHOD_GRAPHS_CACHE_WEIGHT);
+	}
+
+	public GraphColorer(final @NonNull List<ColorPaintBrush> brushesInitial,
+			final @NonNull List<ColorPaintBrush> brushesRepeatable, final long methodGraphsCacheWeight) {
+		this(brushesInitial, brushesRepeatable, methodGraphsCacheWeight, false);
+	}
+
+	public GraphColorer(final @NonNull List<ColorPaintBrush> brushesInitial,
+			final @NonNull List<ColorPaintBrush> brushesRepeatable, final long methodGraphsCacheWeight,
+			final boolean traceFree) {
+		this.brushesInitial = brushesInitial;
+		this.brushesRepeatable = brushesRepeatable;
+		this.traceFree = traceFree;
+		this.methodGraphsCache = CacheBuilder.newBuilder().maximumWeight(methodGraphsCacheWeight)
+				.<MethodKey, Optional<InitialColoredMethodGraph>>weigher(
+						(key, value) -> value.map(graph -> graph.getColorlessGraph().getAllNodes().length).orElse(0)
+								+ 1)
+				.recordStats().build();
 	}
 
 	@SneakyThrows
 	private @NonNull Optional<InitialColoredMethodGraph> buildInitialColoredMethodGraph(final @NonNull CtClass ctClass,
-			final @NonNull CtBehavior ctMethod,
-			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
+			final @NonNull CtBehavior ctMethod) {
+		final long start = System.nanoTime();
 		final @NonNull Optional<BlockDataGraph> opColorlessGraph = new ColorlessMethodGraphBuilder(ctClass.getClassPool(),
 				ctClass, ctMethod).buildGraph();
+		graphBuildNanos.add(System.nanoTime() - start);
+		graphsBuilt.increment();
 		if (opColorlessGraph.isEmpty()) {
 			return Optional.empty();
 		}
 		final @NonNull BlockDataGraph colorlessGraph = opColorlessGraph.get();
 
-		final ColorApplier colorApplier = new ColorApplier(emptyMap(), onSourceSinkIntersection);
+		final ArrayColorStore noColors = new ArrayColorStore(colorlessGraph.getAllNodes());
+		final List<Map.Entry<TraceItem, TraceItem>> initialIntersections = new ArrayList<>(0);
+		final ColorApplier colorApplier = new ColorApplier(colorlessGraph.getAllNodes(), noColors,
+				(source, sink) -> initialIntersections.add(new SimpleImmutableEntry<>(source, sink)), traceFree);
 		brushesInitial.forEach(brush -> {
-			brush.doTouch(colorlessGraph, emptyMap(), colorApplier);
+			brush.doTouch(colorlessGraph, noColors, colorApplier);
 		});
 
-		return Optional.of(new InitialColoredMethodGraph(colorlessGraph, unmodifiableMap(colorApplier.getNewColors()),
-				colorlessGraph.getMethodParamNodes(), colorlessGraph.getMethodReturnNodes()));
+		return Optional.of(new InitialColoredMethodGraph(colorlessGraph, new DataNodeUsages(colorlessGraph),
+				colorApplier.getNewColors(), colorlessGraph.getMethodParamNodes(),
+				colorlessGraph.getMethodReturnNodes(),
+				initialIntersections.isEmpty() ? emptyList() : unmodifiableList(initialIntersections)));
+	}
+
+	/**
+	 * @return number of rounds of repeatable brushes over whole graphs or their
+	 *         affected parts since creation
+	 */
+	public long getColoringRounds() {
+		return coloringRounds.sum();
+	}
+
+	/**
+	 * @return total time spent to build colorless graphs, in nanoseconds
+	 */
+	public long getGraphBuildNanos() {
+		return graphBuildNanos.sum();
+	}
+
+	/**
+	 * @return number of colorless graphs built, including rebuilds of graphs
+	 *         evicted from cache
+	 */
+	public long getGraphsBuilt() {
+		return graphsBuilt.sum();
+	}
+
+	public @NonNull CacheStats getMethodGraphsCacheStats() {
+		return methodGraphsCache.stats();
+	}
+
+	/**
+	 * Drops cached graph of method, so its initial colors are calculated again
+	 * on next coloring (like after configuration was changed)
+	 */
+	public void invalidateMethodGraph(final @NonNull String className, final @NonNull String methodName,
+			final @NonNull String methodSignature) {
+		methodGraphsCache.invalidate(new MethodKey(className, methodName, methodSignature));
 	}
 
 	@SneakyThrows
@@ -61,30 +172,73 @@ public class GraphColorer {
 			final @NonNull CtBehavior ctMethod, final ColoredObject[] ins, final ColoredObject[] outs,
 			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
 
-		final @NonNull Optional<InitialColoredMethodGraph> opInitial = buildInitialColoredMethodGraph(ctClass, ctMethod,
-				onSourceSinkIntersection);
+		final @NonNull Optional<InitialColoredMethodGraph> opInitial = getInitialColoredMethodGraph(ctClass, ctMethod);
 		if (opInitial.isEmpty()) {
 			return Optional.empty();
 		}
 		final @NonNull InitialColoredMethodGraph initial = opInitial.get();
+		initial.getInitialIntersections().forEach(
+				intersection -> onSourceSinkIntersection.accept(intersection.getKey(), intersection.getValue()));
+		return Optional.of(colorMethodGraph(initial, initial.getInitialColors(), ins, outs, onSourceSinkIntersection));
+	}
 
+	/**
+	 * Same as
+	 * {@link #color(CtClass, CtBehavior, ColoredObject[], ColoredObject[], BiConsumer)},
+	 * but without initial (implicit) colors of method graph, i.e. only given
+	 * colors of arguments and results are propagated. Used to find where values of
+	 * arguments and results flow to, so no intersections are reported.
+	 */
+	@SneakyThrows
+	public @NonNull Optional<ColoredObject[][]> colorFlows(final @NonNull CtClass ctClass,
+			final @NonNull CtBehavior ctMethod, final ColoredObject[] ins, final ColoredObject[] outs) {
+		final @NonNull Optional<InitialColoredMethodGraph> opInitial = getInitialColoredMethodGraph(ctClass, ctMethod);
+		if (opInitial.isEmpty()) {
+			return Optional.empty();
+		}
+		final InitialColoredMethodGraph initial = opInitial.get();
+		return Optional.of(colorMethodGraph(initial,
+				new ArrayColorStore(initial.getColorlessGraph().getAllNodes()), ins, outs, (source, sink) -> {
+				}));
+	}
+
+	private @NonNull ColoredObject[][] colorMethodGraph(final @NonNull InitialColoredMethodGraph initial,
+			final @NonNull ArrayColorStore initialColors, final ColoredObject[] ins, final ColoredObject[] outs,
+			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
 		final BlockDataGraph colorlessGraph = initial.getColorlessGraph();
-		final Map<DataNode, ColoredObject> colors = new HashMap<>(initial.getInitialColors());
+		final ArrayColorStore colors = new ArrayColorStore(initialColors);
 
-		updateInsOutsColors(ins, initial.getMethodParams(), colors);
-		updateInsOutsColors(outs, initial.getMethodReturns(), colors);
+		updateInsOutsColors(ins, initial.getMethodParams(), colors, onSourceSinkIntersection);
+		updateInsOutsColors(outs, initial.getMethodReturns(), colors, onSourceSinkIntersection);
 
-		colorImpl(colorlessGraph, colors, onSourceSinkIntersection);
+		colorImpl(colorlessGraph, initial.getColorlessGraphUsages(), colors, onSourceSinkIntersection);
 
 		final ColoredObject[] newIns = Arrays.stream(initial.getMethodParams()).map(colors::get)
 				.toArray(ColoredObject[]::new);
 		final ColoredObject[] newOuts = Arrays.stream(initial.getMethodReturns()).map(colors::get)
 				.toArray(ColoredObject[]::new);
-		return Optional.of(new ColoredObject[][] { newIns, newOuts });
+		return new ColoredObject[][] { newIns, newOuts };
+	}
+
+	/**
+	 * Returns cached colorless graph with initial colors or builds new one
+	 */
+	@SneakyThrows
+	private @NonNull Optional<InitialColoredMethodGraph> getInitialColoredMethodGraph(final @NonNull CtClass ctClass,
+			final @NonNull CtBehavior ctMethod) {
+		final MethodKey key = new MethodKey(ctClass.getName(), ctMethod.getMethodInfo().getName(),
+				ctMethod.getSignature());
+		return methodGraphsCache.get(key, () -> buildInitialColoredMethodGraph(ctClass, ctMethod));
 	}
 
+	/**
+	 * Applies given colors of arguments or results. Note that method itself may
+	 * pass argument to sink (or get result from source) directly, so given colors
+	 * may intersect with initial ones.
+	 */
 	private void updateInsOutsColors(final ColoredObject[] sourceOfNewColors, final DataNode[] whatToUpdate,
-			final @NonNull Map<DataNode, ColoredObject> colors) {
+			final @NonNull ArrayColorStore colors,
+			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
 		if (sourceOfNewColors == null) {
 			return;
 		}
@@ -96,15 +250,15 @@ public class GraphColorer {
 				continue;
 			}
 			DataNode node = whatToUpdate[i];
+			ColoredObject newColor = traceFree ? sourceOfNewColors[i].withoutTrace() : sourceOfNewColors[i];
 			ColoredObject existed = colors.get(node);
 			if (existed == null) {
-				colors.put(node, sourceOfNewColors[i]);
+				colors.put(node, newColor);
 				continue;
 			}
 
-			ColoredObject toStore = ColoredObject.merge(existed, sourceOfNewColors[i], (a, b) -> {
-				throw new RuntimeException("Intersection!");
-			});
+			ColoredObject toStore = ColoredObject.merge(existed, newColor,
+					ColorApplier.toProblemsReporter(onSourceSinkIntersection));
 			if (toStore != existed) {
 				colors.put(node, toStore);
 			}
@@ -113,20 +267,33 @@ public class GraphColorer {
 
 	@SneakyThrows
 	private void colorImpl(final @NonNull BlockDataGraph colorlessGraph,
-			final @NonNull Map<DataNode, ColoredObject> colors,
+			final @NonNull DataNodeUsages colorlessGraphUsages, final @NonNull ArrayColorStore colors,
 			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
 		// initial colors are assigned, now time to color nodes...
-		boolean hasChanges = true;
-		while (hasChanges) {
-			// TODO: optimize by checking only changed nodes ?
-			final ColorApplier colorApplier = new ColorApplier(colors, onSourceSinkIntersection);
+		// first round touches whole graph, next ones -- only part affected by changes
+		final ColorApplier colorApplier = new ColorApplier(colorlessGraph.getAllNodes(), colors,
+				onSourceSinkIntersection, traceFree);
+		final ArrayColorStore newColors = colorApplier.getNewColors();
 
-			final Map<DataNode, ColoredObject> oldColors = unmodifiableMap(colors);
-			this.brushesRepeatable.forEach(brush -> brush.doTouch(colorlessGraph, oldColors, colorApplier));
+		final ColoringEvent event = new ColoringEvent();
+		event.begin();
+		event.nodes = colorlessGraph.getAllNodes().length;
 
-			final @NonNull Map<DataNode, ColoredObject> newColors = colorApplier.getNewColors();
-			hasChanges = !newColors.isEmpty();
-			colors.putAll(newColors);
+		BlockDataGraph toTouch = colorlessGraph;
+		while (true) {
+			coloringRounds.increment();
+			event.rounds++;
+			for (ColorPaintBrush brush : this.brushesRepeatable) {
+				brush.doTouch(toTouch, colors, colorApplier);
+			}
+
+			if (newColors.isEmpty()) {
+				event.commit();
+				return;
+			}
+			newColors.forEachChanged(colors::put);
+			toTouch = colorlessGraphUsages.getAffectedSubgraph(newColors.getChanged());
+			newColors.clear();
 		}
 	}
 
@@ -0,0 +1,29 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
+
+/**
+ * Placeholder of trace of colors during trace-free analysis, see
+ * {@link ColoredObject#withoutTrace()}. Colors with different traces become
+ * equal after replacing their traces with this item.
+ */
+public enum OmittedTraceItem implements TraceItem {
+
+	INSTANCE;
+
+	@Override
+	public TraceItem findPrevious() {
+		return null;
+	}
+
+	@Override
+	public String getMessage() {
+		return "Trace omitted";
+	}
+
+	@Override
+	public SourceCodePosition getSourceCodePosition() {
+		return null;
+	}
+
+}
@@ -1,13 +1,70 @@
 package io.github.vlsergey.secan4j.core.colored;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Immutable color of the value. Instances are canonical: structurally equal
+ * colors created by {@link #of(Confidence, TraceItem, ColorType)} (or
+ * deserialized) are the same instance, so equality check is usually reduced to
+ * identity or cached hash comparison. Trace items are interned as well (see
+ * {@link TraceItems}) and compared by identity.
+ */
+@Getter
+@ToString
+public final class PaintedColor implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private static final Interner<PaintedColor> INTERNER = Interners.newWeakInterner();
+
+	public static @NonNull PaintedColor of(final @NonNull Confidence confidence, final TraceItem src,
+			final @NonNull ColorType type) {
+		return INTERNER.intern(new PaintedColor(confidence, TraceItems.intern(src), type));
+	}
 
-@AllArgsConstructor
-@Data
-public final class PaintedColor {
 	private final @NonNull Confidence confidence;
 	private final TraceItem src;
 	private final @NonNull ColorType type;
-}
\ No newline at end of file
+
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
+	private final transient int hashCode;
+
+	private PaintedColor(final @NonNull Confidence confidence, final TraceItem src, final @NonNull ColorType type) {
+		this.confidence = confidence;
+		this.src = src;
+		this.type = type;
+		this.hashCode = Objects.hash(confidence, System.identityHashCode(src), type);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PaintedColor)) {
+			return false;
+		}
+		final PaintedColor other = (PaintedColor) obj;
+		return hashCode == other.hashCode && confidence == other.confidence && type == other.type
+				&& src == other.src;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	private Object readResolve() {
+		return of(confidence, src, type);
+	}
+
+}
@@ -0,0 +1,186 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+
+import javax.annotation.concurrent.Immutable;
+
+import lombok.NonNull;
+
+/**
+ * Immutable set of classes the value was seen as. Classes are kept as sorted
+ * array of ids from {@link ClassNameDictionary}, so union does not allocate
+ * anything if one set already contains another and single-class sets are
+ * shared. Serialized form contains class names, because ids are valid only
+ * within current run.
+ */
+@Immutable
+public final class SeenClasses implements Iterable<String>, Serializable {
+
+	private static final class SerializedForm implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String[] classNames;
+
+		private SerializedForm(final String[] classNames) {
+			this.classNames = classNames;
+		}
+
+		private Object readResolve() {
+			return of(classNames);
+		}
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	public static final SeenClasses EMPTY = new SeenClasses(new int[0]);
+
+	public static @NonNull SeenClasses of(final @NonNull String className) {
+		return ClassNameDictionary.getSingleton(ClassNameDictionary.getId(className));
+	}
+
+	public static @NonNull SeenClasses of(final @NonNull String... classNames) {
+		if (classNames.length == 1) {
+			return of(classNames[0]);
+		}
+		final int[] ids = Arrays.stream(classNames).mapToInt(ClassNameDictionary::getId).sorted().distinct()
+				.toArray();
+		return ids.length == 0 ? EMPTY : new SeenClasses(ids);
+	}
+
+	private final transient int hashCode;
+
+	private final transient int[] ids;
+
+	SeenClasses(final @NonNull int[] ids) {
+		this.ids = ids;
+		this.hashCode = Arrays.hashCode(ids);
+	}
+
+	public boolean contains(final @NonNull String className) {
+		return Arrays.binarySearch(ids, ClassNameDictionary.getId(className)) >= 0;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SeenClasses)) {
+			return false;
+		}
+		final SeenClasses other = (SeenClasses) obj;
+		return hashCode == other.hashCode && Arrays.equals(ids, other.ids);
+	}
+
+	/**
+	 * @return set with the single class from this set at specified position
+	 */
+	@NonNull
+	SeenClasses getSingle(final int index) {
+		return ids.length == 1 ? this : ClassNameDictionary.getSingleton(ids[index]);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	public boolean isEmpty() {
+		return ids.length == 0;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < ids.length;
+			}
+
+			@Override
+			public String next() {
+				if (next >= ids.length) {
+					throw new NoSuchElementException();
+				}
+				return ClassNameDictionary.getName(ids[next++]);
+			}
+		};
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	@Override
+	public String toString() {
+		final StringJoiner joiner = new StringJoiner(", ", "[", "]");
+		forEach(joiner::add);
+		return joiner.toString();
+	}
+
+	/**
+	 * @return union of sets. If one of the sets contains another, it is returned
+	 *         as is without new allocations.
+	 */
+	public @NonNull SeenClasses union(final @NonNull SeenClasses other) {
+		if (this == other || other.ids.length == 0) {
+			return this;
+		}
+		if (ids.length == 0) {
+			return other;
+		}
+
+		final int size = unionSize(ids, other.ids);
+		if (size == ids.length) {
+			return this;
+		}
+		if (size == other.ids.length) {
+			return other;
+		}
+
+		final int[] result = new int[size];
+		int i = 0, j = 0, k = 0;
+		while (i < ids.length || j < other.ids.length) {
+			if (j == other.ids.length || i < ids.length && ids[i] < other.ids[j]) {
+				result[k++] = ids[i++];
+			} else if (i == ids.length || ids[i] > other.ids[j]) {
+				result[k++] = other.ids[j++];
+			} else {
+				result[k++] = ids[i++];
+				j++;
+			}
+		}
+		return new SeenClasses(result);
+	}
+
+	private static int unionSize(final @NonNull int[] a, final @NonNull int[] b) {
+		int i = 0, j = 0, size = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				i++;
+				j++;
+			}
+			size++;
+		}
+		return size + (a.length - i) + (b.length - j);
+	}
+
+	private Object writeReplace() {
+		final String[] classNames = new String[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			classNames[i] = ClassNameDictionary.getName(ids[i]);
+		}
+		return new SerializedForm(classNames);
+	}
+
+}
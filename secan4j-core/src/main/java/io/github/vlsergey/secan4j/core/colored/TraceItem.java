@@ -2,6 +2,7 @@ package io.github.vlsergey.secan4j.core.colored;
 
 import static java.util.Collections.singletonMap;
 
+import java.io.Serializable;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -9,7 +10,7 @@ import javax.annotation.Nullable;
 import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
 import lombok.NonNull;
 
-public interface TraceItem {
+public interface TraceItem extends Serializable {
 
 	default @NonNull Map<String, ?> describe() {
 		return singletonMap("message", getMessage());
@@ -0,0 +1,26 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Canonical instances of {@link TraceItem}s. All trace items referenced by
+ * {@link PaintedColor}s are interned, and items those continue a trace intern
+ * previous item as well, so they compare and hash it by identity instead of
+ * walking the whole chain.
+ */
+public final class TraceItems {
+
+	private static final Interner<TraceItem> INTERNER = Interners.newWeakInterner();
+
+	@SuppressWarnings("unchecked")
+	public static @Nullable <T extends TraceItem> T intern(final @Nullable T item) {
+		return item == null ? null : (T) INTERNER.intern(item);
+	}
+
+	private TraceItems() {
+	}
+
+}
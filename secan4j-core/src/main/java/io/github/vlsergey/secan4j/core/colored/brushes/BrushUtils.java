@@ -1,11 +1,11 @@
 package io.github.vlsergey.secan4j.core.colored.brushes;
 
 import java.util.Arrays;
-import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
@@ -20,7 +20,7 @@ class BrushUtils {
 		return Arrays.stream(graph.getAllNodes()).filter(dn -> cls.isInstance(dn)).map(dn -> (T) dn);
 	}
 
-	static void copyColor(final @NonNull Map<DataNode, ColoredObject> oldColors, final @NonNull DataNode source,
+	static void copyColor(final @NonNull ColorStore oldColors, final @NonNull DataNode source,
 			final @NonNull Function<ColoredObject, ColoredObject> colorTransformation, final @NonNull DataNode target,
 			final @NonNull BiConsumer<DataNode, ColoredObject> colorApplier) {
 		final ColoredObject sourceColor = oldColors.get(source);
@@ -1,8 +1,8 @@
 package io.github.vlsergey.secan4j.core.colored.brushes;
 
-import java.util.Map;
 import java.util.function.BiConsumer;
 
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
@@ -13,7 +13,7 @@ public interface ColorPaintBrush {
 
 	@NonNull
 	void doTouch(final @NonNull BlockDataGraph colorlessGraph,
-			final @NonNull Map<DataNode, ColoredObject> oldColors,
+			final @NonNull ColorStore oldColors,
 			final @NonNull BiConsumer<DataNode, ColoredObject> onTouch);
 
 }
@@ -1,23 +1,26 @@
 package io.github.vlsergey.secan4j.core.colored.brushes;
 
-import java.util.Map;
 import java.util.function.BiConsumer;
 
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
+import io.github.vlsergey.secan4j.core.colored.ColorType;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colorless.AnyOfNode;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
+import io.github.vlsergey.secan4j.core.colorless.PhiNode;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 
 /**
  * @see AnyOfNode
+ * @see PhiNode
  */
 @AllArgsConstructor
 public class CompositionNodeBrush implements ColorPaintBrush {
 
 	@Override
-	public void doTouch(@NonNull BlockDataGraph colorlessGraph, @NonNull Map<DataNode, ColoredObject> oldColors,
+	public void doTouch(@NonNull BlockDataGraph colorlessGraph, @NonNull ColorStore oldColors,
 			BiConsumer<DataNode, ColoredObject> onTouch) {
 		if (oldColors.isEmpty()) {
 			return;
@@ -32,6 +35,17 @@ public class CompositionNodeBrush implements ColorPaintBrush {
 				onTouch.accept(node, toColorWith);
 			}
 		});
+
+		// requirements of join point value apply to every value that may come to it
+		BrushUtils.getAllNodesWithType(colorlessGraph, PhiNode.class).forEach(node -> {
+			final ColoredObject phiColor = oldColors.get(node);
+			if (phiColor == null || phiColor.getColor().getType() != ColorType.SinkData) {
+				return;
+			}
+			for (DataNode inputNode : node.getInputs()) {
+				onTouch.accept(inputNode, phiColor);
+			}
+		});
 	}
 
 }
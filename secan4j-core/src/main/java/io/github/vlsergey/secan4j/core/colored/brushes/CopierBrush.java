@@ -4,15 +4,17 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
 
 import io.github.vlsergey.secan4j.annotations.CopyAttributesFrom;
 import io.github.vlsergey.secan4j.annotations.CopyAttributesTo;
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.colored.TraceItems;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
 import io.github.vlsergey.secan4j.core.colorless.Invocation;
@@ -33,29 +35,53 @@ public class CopierBrush implements ColorPaintBrush {
 	@Data
 	private static final class CopyTraceItem implements TraceItem {
 
+		private static final long serialVersionUID = 1L;
+
 		@Getter
 		private final SourceCodePosition sourceCodePosition;
 		private final TraceItem src;
 		private final String message;
 
 		private CopyTraceItem(final TraceItem src, final SourceCodePosition sourceCodePosition, final String message) {
-			this.src = src;
+			this.src = TraceItems.intern(src);
 			this.sourceCodePosition = sourceCodePosition;
 			this.message = message;
 		}
 
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CopyTraceItem)) {
+				return false;
+			}
+			final CopyTraceItem other = (CopyTraceItem) obj;
+			return src == other.src && Objects.equals(sourceCodePosition, other.sourceCodePosition)
+					&& message.equals(other.message);
+		}
+
 		@Override
 		public TraceItem findPrevious() {
 			return src;
 		}
 
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(src), sourceCodePosition, message);
+		}
+
+		private Object readResolve() {
+			return TraceItems.intern(this);
+		}
+
 	}
 
 	private final @NonNull DataProvider dataProvider;
 
 	@Override
 	public @NonNull void doTouch(@NonNull BlockDataGraph colorlessGraph,
-			@NonNull Map<DataNode, ColoredObject> oldColors, BiConsumer<DataNode, ColoredObject> onTouch) {
+			@NonNull ColorStore oldColors, BiConsumer<DataNode, ColoredObject> onTouch) {
 		for (Invocation invocation : colorlessGraph.getInvokations()) {
 			if (invocation.getClassName() == null || invocation.getMethodName() == null
 					|| invocation.getMethodSignature() == null) {
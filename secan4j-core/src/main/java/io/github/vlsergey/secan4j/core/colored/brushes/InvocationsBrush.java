@@ -1,9 +1,9 @@
 package io.github.vlsergey.secan4j.core.colored.brushes;
 
 import java.util.Arrays;
-import java.util.Map;
 import java.util.function.BiConsumer;
 
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
@@ -19,7 +19,7 @@ public class InvocationsBrush implements ColorPaintBrush {
 
 	@Override
 	public void doTouch(final @NonNull BlockDataGraph colorlessGraph,
-			final @NonNull Map<DataNode, ColoredObject> oldColors,
+			final @NonNull ColorStore oldColors,
 			final @NonNull BiConsumer<DataNode, ColoredObject> colorApplier) {
 
 		for (Invocation invocation : colorlessGraph.getInvokations()) {
@@ -1,10 +1,10 @@
 package io.github.vlsergey.secan4j.core.colored.brushes;
 
-import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 
 import io.github.vlsergey.secan4j.core.colored.ColorProvider;
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
@@ -27,7 +27,7 @@ public class InvocationsImplicitColorer implements ColorPaintBrush {
 
 	@Override
 	public void doTouch(final @NonNull BlockDataGraph colorlessGraph,
-			final @NonNull Map<DataNode, ColoredObject> oldColors,
+			final @NonNull ColorStore oldColors,
 			final @NonNull BiConsumer<DataNode, ColoredObject> onTouch) {
 
 		for (final @NonNull Invocation invocation : colorlessGraph.getInvokations()) {
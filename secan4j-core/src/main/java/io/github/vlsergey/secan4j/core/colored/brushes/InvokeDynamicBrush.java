@@ -1,14 +1,15 @@
 package io.github.vlsergey.secan4j.core.colored.brushes;
 
 import java.util.Arrays;
-import java.util.Map;
 import java.util.function.BiConsumer;
 
+import io.github.vlsergey.secan4j.core.colored.ColorStore;
 import io.github.vlsergey.secan4j.core.colored.ColorType;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colored.Confidence;
 import io.github.vlsergey.secan4j.core.colored.PaintedColor;
 import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.colored.TraceItems;
 import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
 import io.github.vlsergey.secan4j.core.colorless.DataNode;
 import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
@@ -21,15 +22,34 @@ import lombok.NonNull;
 @AllArgsConstructor
 public class InvokeDynamicBrush implements ColorPaintBrush {
 
-	@AllArgsConstructor
 	@Data
 	private static final class InvokeDynamicTraceItem implements TraceItem {
 
+		private static final long serialVersionUID = 1L;
+
 		private final @NonNull TraceItem previous;
 
 		@Getter
 		private final @NonNull SourceCodePosition sourceCodePosition;
 
+		private InvokeDynamicTraceItem(final @NonNull TraceItem previous,
+				final @NonNull SourceCodePosition sourceCodePosition) {
+			this.previous = TraceItems.intern(previous);
+			this.sourceCodePosition = sourceCodePosition;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof InvokeDynamicTraceItem)) {
+				return false;
+			}
+			final InvokeDynamicTraceItem other = (InvokeDynamicTraceItem) obj;
+			return previous == other.previous && sourceCodePosition.equals(other.sourceCodePosition);
+		}
+
 		@Override
 		public String getMessage() {
 			return "Result of invokeDynamic operation";
@@ -39,11 +59,20 @@ public class InvokeDynamicBrush implements ColorPaintBrush {
 		public TraceItem findPrevious() {
 			return previous;
 		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(previous) + sourceCodePosition.hashCode();
+		}
+
+		private Object readResolve() {
+			return TraceItems.intern(this);
+		}
 	}
 
 	@Override
 	public void doTouch(final @NonNull BlockDataGraph colorlessGraph,
-			final @NonNull Map<DataNode, ColoredObject> oldColors,
+			final @NonNull ColorStore oldColors,
 			final @NonNull BiConsumer<DataNode, ColoredObject> colorApplier) {
 		if (oldColors.isEmpty()) {
 			return;
@@ -61,7 +90,7 @@ public class InvokeDynamicBrush implements ColorPaintBrush {
 						final InvokeDynamicTraceItem traceItem = new InvokeDynamicTraceItem(
 								oldColor.getColor().getSrc(), node.getSourceCodePosition());
 						final ColoredObject newColor = ColoredObject.forRootOnly(node.getType().getCtClass(),
-								new PaintedColor(Confidence.ASSUMED, traceItem, ColorType.SourceData));
+								PaintedColor.of(Confidence.ASSUMED, traceItem, ColorType.SourceData));
 
 						colorApplier.accept(node, newColor);
 					}
@@ -6,4 +6,8 @@ public class AnyOfNode extends DataNode {
 		super("anyof");
 	}
 
+	AnyOfNode(String description) {
+		super(description);
+	}
+
 }
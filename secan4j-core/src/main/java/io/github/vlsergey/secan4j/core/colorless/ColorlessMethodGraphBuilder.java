@@ -1,19 +1,21 @@
 package io.github.vlsergey.secan4j.core.colorless;
 
-import static java.util.Collections.unmodifiableCollection;
+import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 
+import javax.annotation.Nullable;
+
 import javassist.ClassPool;
 import javassist.CtBehavior;
 import javassist.CtClass;
@@ -24,27 +26,13 @@ import javassist.bytecode.analysis.ControlFlow.Block;
 import javassist.bytecode.analysis.ControlFlow.Node;
 import javassist.bytecode.analysis.Frame;
 import javassist.bytecode.analysis.Type;
-import lombok.Data;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 
 public class ColorlessMethodGraphBuilder {
 
-	@Data
-	private static class BlockDataGraphKey {
-		final Block block;
-		final DataNode[] incLocalNodes;
-		final Collection<DataNode> incStackNodes;
-	}
-
 	private static final LinkedList<DataNode> EMPTY_STACK = new LinkedList<>();
 
-	// TODO: move to configuration
-	private static final int MAX_SINGLE_BLOCK_ENTERS = 5;
-
-	// TODO: replace with slf4j?
-	private static boolean TRACE = false;
-
 	private static void assertAssignableFrom(CtClass that, Type assignableFrom) throws NotFoundException {
 		assert that != null;
 		assert assignableFrom != null;
@@ -97,8 +85,23 @@ public class ColorlessMethodGraphBuilder {
 		this.methodBasicBlocks = methodControlFlow.basicBlocks();
 	}
 
-	@SneakyThrows
 	public @NonNull Optional<BlockDataGraph> buildGraph() {
+		final MethodGraphBuildEvent event = new MethodGraphBuildEvent();
+		event.begin();
+
+		final Optional<BlockDataGraph> result = buildGraphImpl();
+
+		if (event.shouldCommit()) {
+			event.method = ctMethod.getLongName();
+			event.blocks = methodBasicBlocks == null ? 0 : methodBasicBlocks.length;
+			event.nodes = result.map(graph -> graph.getAllNodes().length).orElse(0);
+			event.commit();
+		}
+		return result;
+	}
+
+	@SneakyThrows
+	private @NonNull Optional<BlockDataGraph> buildGraphImpl() {
 		if (this.methodBasicBlocks == null || this.methodBasicBlocks.length == 0) {
 			return Optional.empty();
 		}
@@ -126,15 +129,88 @@ public class ColorlessMethodGraphBuilder {
 			counter += rootFrame.getLocal(counter).getSize();
 		}
 
-		final Map<BlockDataGraphKey, BlockDataGraph> done = new LinkedHashMap<>();
-		final int[] blockEnters = new int[methodBasicBlocks.length];
-		buildGraphRecursively(done, rootNode.block(), incLocalNodes, EMPTY_STACK, blockEnters);
+		final List<List<Block>> predecessors = new ArrayList<>(methodBasicBlocks.length);
+		for (int i = 0; i < methodBasicBlocks.length; i++) {
+			predecessors.add(new ArrayList<>(1));
+		}
+		// method entry is an additional incoming edge of the root block
+		predecessors.get(rootBlock.index()).add(null);
+		final List<Block> order = getReversePostorder(rootBlock, predecessors);
+
+		final JoinPoint[] joinPoints = new JoinPoint[methodBasicBlocks.length];
+		for (Block block : order) {
+			if (predecessors.get(block.index()).size() > 1) {
+				joinPoints[block.index()] = new JoinPoint(block, methodControlFlow.frameAt(block.position()));
+			}
+		}
 
-		if (TRACE) {
-			System.out.println("Block enters: " + Arrays.toString(blockEnters));
+		// Blocks are built in reverse postorder, so only values coming by loop back
+		// edges are unknown when block is entered. If such value differs from the
+		// one block was built with, block gets phi node for it and everything is built
+		// once again. Number of passes is limited by loops nesting rather than by the
+		// number of paths.
+		BlockDataGraph[] blockGraphs;
+		boolean changed;
+		do {
+			blockGraphs = new BlockDataGraph[methodBasicBlocks.length];
+			for (Block block : order) {
+				final List<Block> blockPredecessors = predecessors.get(block.index());
+				final JoinPoint joinPoint = joinPoints[block.index()];
+
+				final DataNode[] blockIncLocals;
+				final Deque<DataNode> blockIncStack;
+				if (joinPoint == null) {
+					// single predecessor always precedes block in reverse postorder
+					final Block predecessor = blockPredecessors.get(0);
+					blockIncLocals = predecessor == null ? incLocalNodes
+							: blockGraphs[predecessor.index()].getOutLocalNodes();
+					blockIncStack = predecessor == null ? EMPTY_STACK
+							: blockGraphs[predecessor.index()].getOutStackNodes();
+				} else {
+					final List<DataNode[]> outLocals = new ArrayList<>(blockPredecessors.size());
+					final List<DataNode[]> outStacks = new ArrayList<>(blockPredecessors.size());
+					for (Block predecessor : blockPredecessors) {
+						if (predecessor == null || blockGraphs[predecessor.index()] != null) {
+							outLocals.add(getOutLocals(blockGraphs, incLocalNodes, predecessor));
+							outStacks.add(getOutStack(blockGraphs, predecessor));
+						}
+					}
+					joinPoint.enter(outLocals, outStacks);
+
+					blockIncLocals = joinPoint.getIncLocals();
+					blockIncStack = joinPoint.getIncStack();
+				}
+
+				blockGraphs[block.index()] = new ColorlessBlockGraphBuilder(classPool, ctClass,
+						ctMethod.getMethodInfo(), methodControlFlow, block, blockIncLocals, blockIncStack).buildGraph();
+			}
+
+			changed = false;
+			for (Block block : order) {
+				final JoinPoint joinPoint = joinPoints[block.index()];
+				if (joinPoint == null) {
+					continue;
+				}
+				for (Block predecessor : predecessors.get(block.index())) {
+					changed |= joinPoint.checkBackEdge(getOutLocals(blockGraphs, incLocalNodes, predecessor),
+							getOutStack(blockGraphs, predecessor));
+				}
+			}
+		} while (changed);
+
+		for (Block block : order) {
+			final JoinPoint joinPoint = joinPoints[block.index()];
+			if (joinPoint != null) {
+				for (Block predecessor : predecessors.get(block.index())) {
+					joinPoint.addPhiInputs(getOutLocals(blockGraphs, incLocalNodes, predecessor),
+							getOutStack(blockGraphs, predecessor));
+				}
+			}
 		}
 
-		final Collection<BlockDataGraph> doneGraphs = done.values();
+		final BlockDataGraph[] builtGraphs = blockGraphs;
+		final List<BlockDataGraph> doneGraphs = order.stream().map(block -> builtGraphs[block.index()])
+				.collect(toList());
 		DataNode[] allNodes = collect(doneGraphs, BlockDataGraph::getAllNodes, DataNode[]::new);
 		final DataNode[] outputs = collect(doneGraphs, BlockDataGraph::getOutReturns, DataNode[]::new);
 		final Invocation[] invokations = collect(doneGraphs, BlockDataGraph::getInvokations, Invocation[]::new);
@@ -150,6 +226,11 @@ public class ColorlessMethodGraphBuilder {
 			allNodes[allNodes.length - 1] = compositionNode;
 		}
 
+		for (int i = 0; i < allNodes.length; i++) {
+			assert allNodes[i].index == -1 : "Node " + allNodes[i] + " already belongs to another graph";
+			allNodes[i].index = i;
+		}
+
 		final PutFieldNode[] putFieldNodes = collect(doneGraphs, BlockDataGraph::getPutFieldNodes, PutFieldNode[]::new);
 		final PutStaticNode[] putStaticNodes = collect(doneGraphs, BlockDataGraph::getPutStaticNodes,
 				PutStaticNode[]::new);
@@ -159,31 +240,47 @@ public class ColorlessMethodGraphBuilder {
 				EMPTY_STACK, putFieldNodes, putStaticNodes));
 	}
 
-	@SneakyThrows
-	private void buildGraphRecursively(final @NonNull Map<BlockDataGraphKey, BlockDataGraph> done,
-			final @NonNull Block block, final @NonNull DataNode[] incLocalNodes,
-			final @NonNull Deque<DataNode> incStackNodes, final @NonNull int[] blockEnters) {
-
-		if (++blockEnters[block.index()] > MAX_SINGLE_BLOCK_ENTERS) {
-			return;
-		}
-
-		final BlockDataGraphKey key = new BlockDataGraphKey(block, incLocalNodes,
-				unmodifiableCollection(incStackNodes));
-		if (done.containsKey(key)) {
-			return;
-		}
+	private static @NonNull DataNode[] getOutLocals(final @NonNull BlockDataGraph[] blockGraphs,
+			final @NonNull DataNode[] incLocalNodes, final @Nullable Block predecessor) {
+		return predecessor == null ? incLocalNodes : blockGraphs[predecessor.index()].getOutLocalNodes();
+	}
 
-		BlockDataGraph blockGraph = new ColorlessBlockGraphBuilder(classPool, ctClass, ctMethod.getMethodInfo(),
-				methodControlFlow, block, incLocalNodes, incStackNodes).buildGraph();
-		done.put(key, blockGraph);
+	private static @NonNull DataNode[] getOutStack(final @NonNull BlockDataGraph[] blockGraphs,
+			final @Nullable Block predecessor) {
+		return predecessor == null ? DataNode.EMPTY_DATA_NODES
+				: blockGraphs[predecessor.index()].getOutStackNodes().toArray(DataNode[]::new);
+	}
 
-		for (int e = 0; e < block.exits(); e++) {
-			Block exitBlock = block.exit(e);
-			buildGraphRecursively(done, exitBlock, blockGraph.getOutLocalNodes(), blockGraph.getOutStackNodes(),
-					blockEnters);
+	/**
+	 * Returns reachable (via normal exits) blocks in reverse postorder, i.e. every
+	 * block goes after all its predecessors except those jumping back to the loop
+	 * header. Also collects predecessors of every block.
+	 */
+	private @NonNull List<Block> getReversePostorder(final @NonNull Block rootBlock,
+			final @NonNull List<List<Block>> predecessors) {
+		final boolean[] visited = new boolean[methodBasicBlocks.length];
+		final int[] nextExit = new int[methodBasicBlocks.length];
+		final List<Block> postorder = new ArrayList<>(methodBasicBlocks.length);
+
+		final Deque<Block> path = new ArrayDeque<>();
+		visited[rootBlock.index()] = true;
+		path.push(rootBlock);
+		while (!path.isEmpty()) {
+			final Block block = path.peek();
+			if (nextExit[block.index()] < block.exits()) {
+				final Block exit = block.exit(nextExit[block.index()]++);
+				predecessors.get(exit.index()).add(block);
+				if (!visited[exit.index()]) {
+					visited[exit.index()] = true;
+					path.push(exit);
+				}
+			} else {
+				postorder.add(path.pop());
+			}
 		}
 
+		Collections.reverse(postorder);
+		return postorder;
 	}
 
 }
@@ -19,6 +19,17 @@ public class DataNode {
 
 	String description;
 
+	/**
+	 * Position of the node in {@link BlockDataGraph#getAllNodes()} of the method
+	 * graph it belongs to, assigned when method graph is built
+	 */
+	int index = -1;
+
+	/**
+	 * Not included into {@link #toString()}: phi nodes of loops make inputs
+	 * cyclic
+	 */
+	@ToString.Exclude
 	DataNode[] inputs = EMPTY_DATA_NODES;
 
 	int operation = Opcode.NOP;
@@ -7,7 +7,6 @@ import java.util.function.Function;
 import javassist.CtClass;
 import javassist.CtField;
 import javassist.bytecode.InstructionPrinter;
-import javassist.bytecode.Opcode;
 import javassist.bytecode.analysis.Type;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
@@ -15,21 +14,6 @@ import lombok.NonNull;
 @AllArgsConstructor
 public class DataNodeFactory {
 
-	private static final DataNode[] CONST_INTS = new DataNode[] {
-			new DataNode("ICONST_0").setOperation(Opcode.ICONST_0).setType(Type.INTEGER),
-			new DataNode("ICONST_1").setOperation(Opcode.ICONST_1).setType(Type.INTEGER),
-			new DataNode("ICONST_2").setOperation(Opcode.ICONST_2).setType(Type.INTEGER),
-			new DataNode("ICONST_3").setOperation(Opcode.ICONST_3).setType(Type.INTEGER),
-			new DataNode("ICONST_4").setOperation(Opcode.ICONST_4).setType(Type.INTEGER),
-			new DataNode("ICONST_5").setOperation(Opcode.ICONST_5).setType(Type.INTEGER) };
-
-	private static final DataNode[] CONST_LONGS = new DataNode[] {
-			new DataNode("LCONST_0").setOperation(Opcode.LCONST_0).setType(Type.LONG),
-			new DataNode("LCONST_1").setOperation(Opcode.LCONST_1).setType(Type.LONG) };
-
-	private static final DataNode CONST_NULL = new DataNode("ACONST_NULL").setOperation(Opcode.ACONST_NULL)
-			.setType(Type.UNINIT);
-
 	private final @NonNull ColorlessBlockGraphBuilder blockGraphBuilder;
 
 	private final @NonNull NodeCollectors nodeCollectors;
@@ -58,20 +42,26 @@ public class DataNodeFactory {
 	}
 
 	public DataNode newIntConst(int constantValue) {
-		final DataNode result = CONST_INTS[constantValue];
-		nodeCollectors.getAllNodes().accept(result);
-		return result;
+		return newConst("ICONST_" + constantValue, Type.INTEGER);
 	}
 
 	public DataNode newLongConst(int constantValue) {
-		final DataNode result = CONST_LONGS[constantValue];
-		nodeCollectors.getAllNodes().accept(result);
-		return result;
+		return newConst("LCONST_" + constantValue, Type.LONG);
 	}
 
 	public DataNode newNullConst() {
-		nodeCollectors.getAllNodes().accept(CONST_NULL);
-		return CONST_NULL;
+		return newConst("ACONST_NULL", Type.UNINIT);
+	}
+
+	/**
+	 * Constant nodes are not shared between usages, because every node shall have
+	 * its own index in the graph it belongs to
+	 */
+	private DataNode newConst(final String description, final Type type) {
+		final DataNode result = new DataNode(description).setType(type);
+		populate(result);
+		nodeCollectors.getAllNodes().accept(result);
+		return result;
 	}
 
 	private void populate(DataNode dataNode) {
@@ -0,0 +1,110 @@
+package io.github.vlsergey.secan4j.core.colorless;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.NonNull;
+
+/**
+ * Def-use index of {@link BlockDataGraph}: for every {@link DataNode} it knows
+ * all graph elements (nodes, invocations and field stores) that use it. Used to
+ * revisit only part of the graph affected by changed nodes.
+ */
+public class DataNodeUsages {
+
+	private static <K, V> void add(final @NonNull Map<K, List<V>> usages, final @NonNull K usedNode,
+			final @NonNull V user) {
+		usages.computeIfAbsent(usedNode, k -> new ArrayList<>(1)).add(user);
+	}
+
+	private final @NonNull BlockDataGraph graph;
+
+	private final @NonNull Map<DataNode, List<Invocation>> invocationUsages = new HashMap<>();
+
+	private final @NonNull Map<DataNode, List<DataNode>> nodeUsages = new HashMap<>();
+
+	private final @NonNull Map<DataNode, List<PutFieldNode>> putFieldUsages = new HashMap<>();
+
+	public DataNodeUsages(final @NonNull BlockDataGraph graph) {
+		this.graph = graph;
+
+		for (DataNode node : graph.getAllNodes()) {
+			for (DataNode input : node.getInputs()) {
+				add(nodeUsages, input, node);
+			}
+		}
+		for (Invocation invocation : graph.getInvokations()) {
+			for (DataNode parameter : invocation.getParameters()) {
+				add(invocationUsages, parameter, invocation);
+			}
+			for (DataNode result : invocation.getResults()) {
+				add(invocationUsages, result, invocation);
+			}
+		}
+		for (PutFieldNode putFieldNode : graph.getPutFieldNodes()) {
+			add(putFieldUsages, putFieldNode.getObjectRef(), putFieldNode);
+			add(putFieldUsages, putFieldNode.getValue(), putFieldNode);
+		}
+	}
+
+	/**
+	 * Builds view of the graph that contains only changed nodes and elements that
+	 * use them. Method parameters, returns and other "boundary" nodes are kept
+	 * as-is.
+	 */
+	public @NonNull BlockDataGraph getAffectedSubgraph(final @NonNull Collection<DataNode> changed) {
+		final Set<DataNode> nodes = new LinkedHashSet<>();
+		final Set<Invocation> invocations = new LinkedHashSet<>();
+		final Set<PutFieldNode> putFieldNodes = new LinkedHashSet<>();
+
+		for (DataNode changedNode : changed) {
+			addAffected(changedNode, nodes, invocations, putFieldNodes);
+		}
+
+		return newSubgraph(nodes, invocations, putFieldNodes);
+	}
+
+	/**
+	 * Same as {@link #getAffectedSubgraph(Collection)}, but changed nodes are given
+	 * by their indexes in the graph
+	 * 
+	 * @see DataNode#getIndex()
+	 */
+	public @NonNull BlockDataGraph getAffectedSubgraph(final @NonNull BitSet changed) {
+		final DataNode[] allNodes = graph.getAllNodes();
+		final Set<DataNode> nodes = new LinkedHashSet<>();
+		final Set<Invocation> invocations = new LinkedHashSet<>();
+		final Set<PutFieldNode> putFieldNodes = new LinkedHashSet<>();
+
+		for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+			addAffected(allNodes[i], nodes, invocations, putFieldNodes);
+		}
+
+		return newSubgraph(nodes, invocations, putFieldNodes);
+	}
+
+	private void addAffected(final @NonNull DataNode changedNode, final @NonNull Set<DataNode> nodes,
+			final @NonNull Set<Invocation> invocations, final @NonNull Set<PutFieldNode> putFieldNodes) {
+		nodes.add(changedNode);
+		nodes.addAll(nodeUsages.getOrDefault(changedNode, emptyList()));
+		invocations.addAll(invocationUsages.getOrDefault(changedNode, emptyList()));
+		putFieldNodes.addAll(putFieldUsages.getOrDefault(changedNode, emptyList()));
+	}
+
+	private @NonNull BlockDataGraph newSubgraph(final @NonNull Set<DataNode> nodes,
+			final @NonNull Set<Invocation> invocations, final @NonNull Set<PutFieldNode> putFieldNodes) {
+		return new BlockDataGraph(nodes.toArray(DataNode[]::new), graph.getIncLocalNodes(),
+				graph.getIncStackNodes(), invocations.toArray(Invocation[]::new), graph.getMethodParamNodes(),
+				graph.getMethodReturnNodes(), graph.getOutLocalNodes(), graph.getOutReturns(),
+				graph.getOutStackNodes(), putFieldNodes.toArray(PutFieldNode[]::new), graph.getPutStaticNodes());
+	}
+
+}
@@ -0,0 +1,139 @@
+package io.github.vlsergey.secan4j.core.colorless;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import javassist.bytecode.analysis.ControlFlow.Block;
+import javassist.bytecode.analysis.Frame;
+import javassist.bytecode.analysis.Type;
+import lombok.NonNull;
+
+/**
+ * Incoming locals and stack of basic block with several predecessors. Slot
+ * value is passed as is if it is the same for all predecessors, otherwise slot
+ * gets {@link PhiNode}. Stack slots are numbered from the top of the stack.
+ */
+class JoinPoint {
+
+	private static boolean isKnownType(final @Nullable Type type) {
+		return type != null && type != Type.TOP;
+	}
+
+	private final @NonNull Block block;
+	private DataNode[] incLocals;
+	private DataNode[] incStack;
+	private final @NonNull DataNode[] localPhis;
+	private final @NonNull Type[] localTypes;
+	private final @NonNull DataNode[] stackPhis;
+	private final @NonNull Type[] stackTypes;
+
+	JoinPoint(final @NonNull Block block, final @NonNull Frame frame) {
+		this.block = block;
+
+		this.localTypes = new Type[frame.localsLength()];
+		for (int i = 0; i < localTypes.length; i++) {
+			localTypes[i] = frame.getLocal(i);
+		}
+		this.localPhis = new DataNode[localTypes.length];
+
+		// wide values take two frame slots, but single stack node
+		final LinkedList<Type> stack = new LinkedList<>();
+		for (int i = 0; i <= frame.getTopIndex(); i++) {
+			if (frame.getStack(i) != Type.TOP) {
+				stack.push(frame.getStack(i));
+			}
+		}
+		this.stackTypes = stack.toArray(Type[]::new);
+		this.stackPhis = new DataNode[stackTypes.length];
+	}
+
+	/**
+	 * Adds values from the end of predecessor block to inputs of phi nodes
+	 */
+	void addPhiInputs(final @NonNull DataNode[] outLocals, final @NonNull DataNode[] outStack) {
+		assert outStack.length == stackPhis.length;
+
+		for (int i = 0; i < localPhis.length; i++) {
+			addPhiInput(localPhis[i], outLocals[i]);
+		}
+		for (int i = 0; i < stackPhis.length; i++) {
+			addPhiInput(stackPhis[i], outStack[i]);
+		}
+	}
+
+	private static void addPhiInput(final @Nullable DataNode phiNode, final @Nullable DataNode input) {
+		if (phiNode == null || input == null || input == phiNode || Arrays.asList(phiNode.inputs).contains(input)) {
+			return;
+		}
+		phiNode.inputs = Arrays.copyOf(phiNode.inputs, phiNode.inputs.length + 1);
+		phiNode.inputs[phiNode.inputs.length - 1] = input;
+	}
+
+	/**
+	 * Checks values of predecessor those was built after this block (loop back
+	 * edge)
+	 *
+	 * @return <code>true</code> if new phi node was required and block (and its
+	 *         successors) shall be built again
+	 */
+	boolean checkBackEdge(final @NonNull DataNode[] outLocals, final @NonNull DataNode[] outStack) {
+		return checkBackEdge(localPhis, localTypes, incLocals, outLocals)
+				| checkBackEdge(stackPhis, stackTypes, incStack, outStack);
+	}
+
+	private boolean checkBackEdge(final @NonNull DataNode[] phis, final @NonNull Type[] types,
+			final @NonNull DataNode[] incValues, final @NonNull DataNode[] outValues) {
+		boolean changed = false;
+		for (int i = 0; i < phis.length; i++) {
+			if (phis[i] == null && isKnownType(types[i]) && incValues[i] != outValues[i]) {
+				phis[i] = new PhiNode(block).setType(types[i]);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Calculates incoming values of block from values of already built
+	 * predecessors
+	 */
+	void enter(final @NonNull List<DataNode[]> outLocals, final @NonNull List<DataNode[]> outStacks) {
+		this.incLocals = join(localPhis, localTypes, outLocals);
+		this.incStack = join(stackPhis, stackTypes, outStacks);
+	}
+
+	@NonNull
+	DataNode[] getIncLocals() {
+		return incLocals;
+	}
+
+	@NonNull
+	Deque<DataNode> getIncStack() {
+		return new LinkedList<>(Arrays.asList(incStack));
+	}
+
+	private @NonNull DataNode[] join(final @NonNull DataNode[] phis, final @NonNull Type[] types,
+			final @NonNull List<DataNode[]> outValues) {
+		final DataNode[] result = new DataNode[phis.length];
+		for (int i = 0; i < phis.length; i++) {
+			if (phis[i] != null) {
+				result[i] = phis[i];
+				continue;
+			}
+
+			final int slot = i;
+			final DataNode first = outValues.get(0)[slot];
+			if (outValues.stream().allMatch(values -> values[slot] == first)) {
+				result[i] = first;
+			} else if (isKnownType(types[i])) {
+				result[i] = phis[i] = new PhiNode(block).setType(types[i]);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,27 @@
+package io.github.vlsergey.secan4j.core.colorless;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of {@link ColorlessMethodGraphBuilder#buildGraph()} invocation
+ */
+@Category("secan4j")
+@Description("Building of colorless data graph of method")
+@Label("Method Graph Build")
+@Name("io.github.vlsergey.secan4j.MethodGraphBuild")
+class MethodGraphBuildEvent extends Event {
+
+	@Label("Blocks")
+	int blocks;
+
+	@Label("Method")
+	String method;
+
+	@Label("Nodes")
+	int nodes;
+
+}
@@ -0,0 +1,17 @@
+package io.github.vlsergey.secan4j.core.colorless;
+
+import javassist.bytecode.analysis.ControlFlow.Block;
+
+/**
+ * Value of local variable or stack slot at the start of basic block with
+ * several incoming edges (join point). Inputs are the values of the same slot
+ * at the end of every predecessor block, including blocks those jump back to
+ * the loop header.
+ */
+public class PhiNode extends AnyOfNode {
+
+	PhiNode(final Block block) {
+		super("phi@" + block.position());
+	}
+
+}
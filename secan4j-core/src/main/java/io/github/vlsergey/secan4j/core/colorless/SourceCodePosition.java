@@ -1,10 +1,14 @@
 package io.github.vlsergey.secan4j.core.colorless;
 
+import java.io.Serializable;
+
 import lombok.Data;
 import lombok.NonNull;
 
 @Data
-public class SourceCodePosition {
+public class SourceCodePosition implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public SourceCodePosition(final @NonNull String className, final @NonNull String methodName, int sourceLine) {
 		this.className = className.intern();
@@ -0,0 +1,19 @@
+package io.github.vlsergey.secan4j.core.findings;
+
+/**
+ * Output formats of {@link StreamingFindingsWriter}
+ */
+public enum FindingsFormat {
+
+	/**
+	 * One JSON object per line, each line is a complete finding
+	 */
+	JSONL,
+
+	/**
+	 * <a href="https://sarifweb.azurewebsites.net/">SARIF 2.1.0</a> log with
+	 * single run. File becomes valid JSON only after writer is closed.
+	 */
+	SARIF,
+
+}
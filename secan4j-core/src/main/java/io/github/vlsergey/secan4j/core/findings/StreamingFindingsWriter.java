@@ -0,0 +1,239 @@
+package io.github.vlsergey.secan4j.core.findings;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Source-sink intersections listener that writes each finding to file as soon
+ * as it is reported. Findings with the same source and sink are written only
+ * once. Records are written by separate thread and flushed whenever there is
+ * nothing more to write, so analysis threads are not blocked by I/O and
+ * findings are visible in file during the analysis. Only fingerprints of
+ * written findings are kept in memory.
+ */
+@Slf4j
+public class StreamingFindingsWriter implements BiConsumer<TraceItem, TraceItem>, Closeable {
+
+	/**
+	 * Compared by identity, so it can not be confused with written record
+	 */
+	private static final String END_OF_STREAM = new String("");
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final String RULE_ID = "source-sink";
+
+	private static final String SARIF_FOOTER = "]}]}\n";
+
+	private static final String SARIF_HEADER = "{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\","
+			+ "\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":{\"name\":\"secan4j\",\"rules\":[{\"id\":\""
+			+ RULE_ID + "\",\"shortDescription\":{\"text\":\"Data from source reaches sink\"}}]}},\"results\":[";
+
+	private static @NonNull String fingerprint(final @NonNull List<TraceItem> trace) {
+		final TraceItem source = trace.get(0);
+		final TraceItem sink = trace.get(trace.size() - 1);
+		return Hashing.sha256().hashString(toJson(toRecord(source)) + toJson(toRecord(sink)), UTF_8).toString();
+	}
+
+	@SneakyThrows(JsonProcessingException.class)
+	private static @NonNull String toJson(final @NonNull Object value) {
+		return OBJECT_MAPPER.writeValueAsString(value);
+	}
+
+	private static @NonNull Map<String, Object> toRecord(final @NonNull TraceItem traceItem) {
+		final Map<String, Object> record = new LinkedHashMap<>(traceItem.describe());
+		final SourceCodePosition position = traceItem.getSourceCodePosition();
+		if (position != null) {
+			record.put("position", position);
+		}
+		return record;
+	}
+
+	private static @NonNull Map<String, Object> toSarifLocation(final @NonNull TraceItem traceItem) {
+		final Map<String, Object> location = new LinkedHashMap<>();
+		location.put("message", singletonMap("text", traceItem.getMessage()));
+
+		final SourceCodePosition position = traceItem.getSourceCodePosition();
+		if (position != null) {
+			final String className = position.getClassName();
+			final int nestedIndex = className.indexOf('$');
+			final String outerClassName = nestedIndex == -1 ? className : className.substring(0, nestedIndex);
+
+			final Map<String, Object> physicalLocation = new LinkedHashMap<>();
+			physicalLocation.put("artifactLocation", singletonMap("uri", outerClassName.replace('.', '/') + ".java"));
+			if (position.getSourceLine() > 0) {
+				physicalLocation.put("region", singletonMap("startLine", position.getSourceLine()));
+			}
+			location.put("physicalLocation", physicalLocation);
+
+			final Map<String, Object> logicalLocation = new LinkedHashMap<>();
+			logicalLocation.put("fullyQualifiedName", className + "." + position.getMethodName());
+			logicalLocation.put("kind", "function");
+			location.put("logicalLocations", singletonList(logicalLocation));
+		}
+		return location;
+	}
+
+	private static @NonNull Map<String, Object> toSarifResult(final @NonNull List<TraceItem> trace) {
+		final TraceItem source = trace.get(0);
+		final TraceItem sink = trace.get(trace.size() - 1);
+
+		final Map<String, Object> result = new LinkedHashMap<>();
+		result.put("ruleId", RULE_ID);
+		result.put("level", "error");
+		result.put("message", singletonMap("text", source.getMessage() + " reaches " + sink.getMessage()));
+		result.put("locations", singletonList(toSarifLocation(sink)));
+
+		final List<Object> threadFlowLocations = trace.stream()
+				.map(traceItem -> singletonMap("location", toSarifLocation(traceItem))).collect(toList());
+		result.put("codeFlows", singletonList(
+				singletonMap("threadFlows", singletonList(singletonMap("locations", threadFlowLocations)))));
+		return result;
+	}
+
+	private static @NonNull List<TraceItem> toTrace(TraceItem source, TraceItem sink) {
+		final LinkedList<TraceItem> result = new LinkedList<>();
+		while (source != null) {
+			result.addFirst(source);
+			source = source.findPrevious();
+		}
+		while (sink != null) {
+			result.addLast(sink);
+			sink = sink.findPrevious();
+		}
+		return result;
+	}
+
+	private final @NonNull Set<String> fingerprints = newSetFromMap(new ConcurrentHashMap<>());
+
+	private final @NonNull FindingsFormat format;
+
+	private final @NonNull BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+
+	private volatile IOException writeFailure;
+
+	private final @NonNull Writer writer;
+
+	private final @NonNull Thread writerThread;
+
+	public StreamingFindingsWriter(final @NonNull Path file, final @NonNull FindingsFormat format)
+			throws IOException {
+		this.format = format;
+		this.writer = Files.newBufferedWriter(file, UTF_8);
+		this.writerThread = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("secan4j-findings-writer")
+				.build().newThread(this::writeQueued);
+		this.writerThread.start();
+	}
+
+	@Override
+	public void accept(final TraceItem source, final TraceItem sink) {
+		final List<TraceItem> trace = toTrace(source, sink);
+		if (trace.isEmpty() || writeFailure != null || !fingerprints.add(fingerprint(trace))) {
+			return;
+		}
+
+		if (format == FindingsFormat.SARIF) {
+			queue.add(toJson(toSarifResult(trace)));
+		} else {
+			final Map<String, Object> finding = new LinkedHashMap<>();
+			finding.put("source", toRecord(trace.get(0)));
+			finding.put("sink", toRecord(trace.get(trace.size() - 1)));
+			finding.put("trace", trace.stream().map(StreamingFindingsWriter::toRecord).collect(toList()));
+			queue.add(toJson(finding));
+		}
+	}
+
+	/**
+	 * Waits until all reported findings are written and closes the file
+	 */
+	@Override
+	public void close() throws IOException {
+		queue.add(END_OF_STREAM);
+		try {
+			writerThread.join();
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for findings to be written");
+		} finally {
+			writer.close();
+		}
+
+		if (writeFailure != null) {
+			throw writeFailure;
+		}
+	}
+
+	/**
+	 * @return number of distinct findings reported so far
+	 */
+	public int getFindingsCount() {
+		return fingerprints.size();
+	}
+
+	private void writeQueued() {
+		try {
+			if (format == FindingsFormat.SARIF) {
+				writer.write(SARIF_HEADER);
+			}
+
+			boolean first = true;
+			for (String record = queue.take(); record != END_OF_STREAM; record = queue.take()) {
+				if (format == FindingsFormat.SARIF) {
+					if (!first) {
+						writer.write(',');
+					}
+					writer.write(record);
+				} else {
+					writer.write(record);
+					writer.write('\n');
+				}
+				first = false;
+
+				if (queue.isEmpty()) {
+					writer.flush();
+				}
+			}
+
+			if (format == FindingsFormat.SARIF) {
+				writer.write(SARIF_FOOTER);
+			}
+			writer.flush();
+		} catch (IOException exc) {
+			log.error("Unable to write findings: " + exc.getMessage(), exc);
+			writeFailure = exc;
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
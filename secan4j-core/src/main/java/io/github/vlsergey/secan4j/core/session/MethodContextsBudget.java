@@ -0,0 +1,98 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import javassist.CtBehavior;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limits number of distinct contexts (colors of arguments and results) each
+ * method is analyzed with, see
+ * {@link PaintingSessionSettings#getMaxContextsPerMethod()}. Calls with contexts
+ * beyond the budget are analyzed using parametric summary of the method (see
+ * {@link ParametricSummaries}): its tasks do not depend on call site colors, so
+ * number of tasks per method stays bounded, while colors (and traces) of every
+ * call site are still instantiated at that call site.
+ * <p>
+ * Only contexts of tasks those are still stored are counted: contexts of
+ * evicted tasks are released (see {@link #release(PaintingTask.TaskKey)}), so
+ * budget does not keep colors of every context ever seen. Nothing is tracked
+ * when budget is unlimited.
+ */
+@Slf4j
+class MethodContextsBudget {
+
+	/**
+	 * Admitted contexts by method key without colors, see
+	 * {@link PaintingTask.TaskKey#withoutColors()}
+	 */
+	private final @NonNull Map<PaintingTask.TaskKey, Set<PaintingTask.TaskKey>> admittedByMethod =
+			new ConcurrentHashMap<>();
+
+	private final int maxContextsPerMethod;
+
+	MethodContextsBudget(final int maxContextsPerMethod) {
+		this.maxContextsPerMethod = maxContextsPerMethod;
+	}
+
+	/**
+	 * @param insVariants  variants of arguments colors (i.e. demultiplexed
+	 *                     arguments of single call)
+	 * @param beyondBudget receives variants those do not fit into the budget
+	 * @return keys of tasks to analyze call with: keys of already admitted
+	 *         contexts and keys of contexts that still fit into the budget
+	 */
+	@NonNull
+	List<PaintingTask.TaskKey> admit(final @NonNull CtBehavior method, final @NonNull List<ColoredObject[]> insVariants,
+			final @NonNull ColoredObject[] outs, final @NonNull Consumer<ColoredObject[]> beyondBudget) {
+		final List<PaintingTask.TaskKey> result = new ArrayList<>(insVariants.size());
+		if (maxContextsPerMethod == Integer.MAX_VALUE) {
+			for (ColoredObject[] ins : insVariants) {
+				result.add(new PaintingTask.TaskKey(method, ins, outs));
+			}
+			return result;
+		}
+
+		for (ColoredObject[] ins : insVariants) {
+			final PaintingTask.TaskKey key = new PaintingTask.TaskKey(method, ins, outs);
+			admittedByMethod.compute(key.withoutColors(), (methodKey, admitted) -> {
+				final Set<PaintingTask.TaskKey> updated = admitted == null ? new HashSet<>() : admitted;
+				if (updated.contains(key)) {
+					result.add(key);
+				} else if (updated.size() < maxContextsPerMethod) {
+					updated.add(key);
+					result.add(key);
+				} else {
+					log.debug("Contexts budget of {}(…) is exceeded, parametric summary will be used",
+							method.getName());
+					beyondBudget.accept(ins);
+				}
+				return updated;
+			});
+		}
+		return result;
+	}
+
+	boolean fitsIntoBudget(final long contextsCount) {
+		return contextsCount <= maxContextsPerMethod;
+	}
+
+	/**
+	 * Releases context of evicted task, so another context can be admitted instead
+	 */
+	void release(final @NonNull PaintingTask.TaskKey key) {
+		admittedByMethod.computeIfPresent(key.withoutColors(), (methodKey, admitted) -> {
+			admitted.remove(key);
+			return admitted.isEmpty() ? null : admitted;
+		});
+	}
+
+}
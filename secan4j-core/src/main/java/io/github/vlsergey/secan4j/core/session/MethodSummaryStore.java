@@ -0,0 +1,277 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.colored.PaintedColor;
+import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
+import io.github.vlsergey.secan4j.data.DataProvider;
+import javassist.ClassPool;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * On-disk cache of {@link PaintingTask} results. Each entry is stored under the
+ * hash of task key, bytecode of declaring class and version of analysis (see
+ * {@link #FORMAT_VERSION}). Entry also remembers bytecode hashes of all
+ * classes of dependency tasks (and of callees those were not analyzed, like
+ * empty methods) and configuration hashes (see
+ * {@link DataProvider#getConfigurationHash(String)}) of all classes those
+ * configuration was looked up by task and its dependencies, and is ignored if
+ * any of them was changed since entry was stored. So configuration change
+ * invalidates only results those may depend on it.
+ * <p>
+ * Cache directory may be shared, so only classes of stored entries are allowed
+ * to be deserialized from it.
+ */
+@Slf4j
+class MethodSummaryStore {
+
+	@AllArgsConstructor
+	@Data
+	static class Entry implements Serializable {
+		private static final long serialVersionUID = 2L;
+
+		/**
+		 * Bytecode hashes of all classes those methods were used to calculate result
+		 */
+		private final @NonNull Map<String, String> classHashes;
+		/**
+		 * Configuration hashes of all classes those configuration was used to
+		 * calculate result
+		 */
+		private final @NonNull Map<String, String> configurationHashes;
+		private final ColoredObject[] resultIns;
+		private final ColoredObject[] resultOuts;
+	}
+
+	/**
+	 * Classes of {@link Entry} object graph, including all {@link TraceItem}
+	 * implementations
+	 */
+	private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(String.join(";", //
+			"java.lang.Enum", //
+			"java.lang.String", //
+			"java.util.TreeMap", //
+			"io.github.vlsergey.secan4j.core.colored.**", //
+			"io.github.vlsergey.secan4j.core.colorless.SourceCodePosition", //
+			"io.github.vlsergey.secan4j.core.session.MethodSummaryStore$Entry", //
+			"io.github.vlsergey.secan4j.core.session.ParametricSummaries$*", //
+			"io.github.vlsergey.secan4j.core.user2command.ImplicitMethodParameterColor", //
+			"!*"));
+
+	/**
+	 * Shall be incremented every time analysis results may change for the same
+	 * bytecode and configuration (like when brushes are changed) or entry format
+	 * is changed. Version of secan4j itself (when available) is part of entry key
+	 * as well.
+	 */
+	static final int FORMAT_VERSION = 1;
+
+	private static final String SUFFIX = ".summary";
+
+	private static void putColors(final @NonNull Hasher hasher, final @Nullable ColoredObject[] colors) {
+		if (colors == null) {
+			hasher.putInt(-1);
+			return;
+		}
+		hasher.putInt(colors.length);
+		for (ColoredObject coloredObject : colors) {
+			if (coloredObject == null) {
+				hasher.putBoolean(false);
+				continue;
+			}
+			hasher.putBoolean(true);
+
+			final PaintedColor color = coloredObject.getColor();
+			putString(hasher, color.getType().name());
+			putString(hasher, color.getConfidence().name());
+
+			final TreeSet<String> seenClassesHere = Sets.newTreeSet(coloredObject.getSeenClassesHere());
+			hasher.putInt(seenClassesHere.size());
+			seenClassesHere.forEach(cls -> putString(hasher, cls));
+
+			for (TraceItem traceItem = color.getSrc(); traceItem != null; traceItem = traceItem.findPrevious()) {
+				putString(hasher, traceItem.getClass().getName());
+				putString(hasher, traceItem.getMessage());
+
+				final SourceCodePosition position = traceItem.getSourceCodePosition();
+				if (position != null) {
+					putString(hasher, position.getClassName());
+					putString(hasher, position.getMethodName());
+					hasher.putInt(position.getSourceLine());
+				}
+			}
+			hasher.putInt(-1);
+		}
+	}
+
+	private static void putString(final @NonNull Hasher hasher, final @Nullable String str) {
+		if (str == null) {
+			hasher.putInt(-1);
+			return;
+		}
+		hasher.putInt(str.length());
+		hasher.putString(str, UTF_8);
+	}
+
+	private final @NonNull Map<String, Optional<String>> classHashes = new ConcurrentHashMap<>();
+
+	private final @NonNull ClassPool classPool;
+
+	private final @NonNull DataProvider dataProvider;
+
+	private final @NonNull Path directory;
+
+	/**
+	 * Distinguishes results those shall not be mixed, like ones with and without
+	 * traces
+	 */
+	private final @NonNull String variant;
+
+	MethodSummaryStore(final @NonNull Path directory, final @NonNull ClassPool classPool,
+			final @NonNull DataProvider dataProvider, final @NonNull String variant) {
+		this.directory = directory;
+		this.classPool = classPool;
+		this.dataProvider = dataProvider;
+		this.variant = variant;
+	}
+
+	private @NonNull Optional<String> computeClassHash(final @NonNull String className) {
+		final URL url = classPool.find(className);
+		if (url == null) {
+			log.debug("Bytecode of {} is not available, its methods results won't be cached", className);
+			return Optional.empty();
+		}
+
+		try (InputStream is = url.openStream()) {
+			return Optional.of(Hashing.sha256().hashBytes(is.readAllBytes()).toString());
+		} catch (IOException exc) {
+			log.debug("Unable to read bytecode of " + className + ": " + exc.getMessage(), exc);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return hash of class bytecode or empty {@link Optional} if bytecode is not
+	 *         available (like for generated classes)
+	 */
+	@NonNull
+	Optional<String> getClassHash(final @NonNull String className) {
+		return classHashes.computeIfAbsent(className, this::computeClassHash);
+	}
+
+	private @NonNull Optional<Path> getEntryPath(final @NonNull PaintingTask.TaskKey key) {
+		final Optional<String> classHash = getClassHash(key.getClassName());
+		if (classHash.isEmpty()) {
+			return Optional.empty();
+		}
+
+		final Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(FORMAT_VERSION);
+		putString(hasher, MethodSummaryStore.class.getPackage().getImplementationVersion());
+		putString(hasher, variant);
+		putString(hasher, classHash.get());
+		putString(hasher, key.getClassName());
+		putString(hasher, key.getMethodName());
+		putString(hasher, key.getMethodSignature());
+		putColors(hasher, key.getParamIns());
+		putColors(hasher, key.getParamOuts());
+		return Optional.of(directory.resolve(hasher.hash().toString() + SUFFIX));
+	}
+
+	@NonNull
+	Optional<Entry> load(final @NonNull PaintingTask.TaskKey key) {
+		final Optional<Path> path = getEntryPath(key);
+		if (path.isEmpty() || !Files.isRegularFile(path.get())) {
+			return Optional.empty();
+		}
+
+		final Entry entry;
+		try (InputStream is = Files.newInputStream(path.get());
+				ObjectInputStream ois = new ObjectInputStream(is)) {
+			ois.setObjectInputFilter(FILTER);
+			entry = (Entry) ois.readObject();
+		} catch (Exception exc) {
+			log.warn("Unable to read cached results of " + key.getMethodName() + " from " + path.get() + ": "
+					+ exc.getMessage(), exc);
+			return Optional.empty();
+		}
+
+		for (Map.Entry<String, String> classHash : entry.getClassHashes().entrySet()) {
+			if (!getClassHash(classHash.getKey()).equals(Optional.of(classHash.getValue()))) {
+				log.debug("Skip cached results of {}(…): class {} was changed", key.getMethodName(),
+						classHash.getKey());
+				return Optional.empty();
+			}
+		}
+		for (Map.Entry<String, String> configurationHash : entry.getConfigurationHashes().entrySet()) {
+			if (!dataProvider.getConfigurationHash(configurationHash.getKey()).equals(configurationHash.getValue())) {
+				log.debug("Skip cached results of {}(…): configuration of {} was changed", key.getMethodName(),
+						configurationHash.getKey());
+				return Optional.empty();
+			}
+		}
+
+		log.debug("Use cached results of {}(…) from {}", key.getMethodName(), path.get());
+		return Optional.of(entry);
+	}
+
+	/**
+	 * Stores entry atomically, so concurrent readers (including other processes)
+	 * never see partially written file
+	 */
+	void store(final @NonNull PaintingTask.TaskKey key, final @NonNull Entry entry) {
+		final Optional<Path> path = getEntryPath(key);
+		if (path.isEmpty()) {
+			return;
+		}
+
+		Path tempFile = null;
+		try {
+			Files.createDirectories(directory);
+			tempFile = Files.createTempFile(directory, "summary", ".tmp");
+			try (OutputStream os = Files.newOutputStream(tempFile);
+					ObjectOutputStream oos = new ObjectOutputStream(os)) {
+				oos.writeObject(entry);
+			}
+			Files.move(tempFile, path.get(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception exc) {
+			log.warn("Unable to store results of " + key.getMethodName() + " to " + path.get() + ": "
+					+ exc.getMessage(), exc);
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException exc2) {
+					log.debug("Unable to delete temporary file " + tempFile, exc2);
+				}
+			}
+		}
+	}
+
+}
@@ -1,74 +1,232 @@
 package io.github.vlsergey.secan4j.core.session;
 
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Executes tasks on a fixed pool of threads with following guarantees:
+ * <ul>
+ * <li>task with the same key is never executed by two threads at once;
+ * <li>task queued while it is waiting for execution is not queued twice;
+ * <li>task queued while it is being executed will be executed once again right
+ * after current execution is finished (so no update is lost);
+ * <li>waiting tasks with lower priority value are executed first, tasks with the
+ * same priority are executed in order of queueing. Priority is calculated when
+ * task is queued and again on {@link #reprioritize(Object)}.
+ * </ul>
+ * Number of queued and running tasks is tracked by counter, so waiting for
+ * completion does not require scanning all queued tasks.
+ */
 @Slf4j
 public class PaintingExecutorService<K, T> {
 
+	private static final class QueuedTask<T> {
+		private Future<?> future;
+		private boolean rerunRequested = false;
+		private boolean running = false;
+		private final T task;
+
+		private QueuedTask(final T task) {
+			this.task = task;
+		}
+	}
+
+	private static final class PrioritizedFuture extends FutureTask<Void> implements Comparable<PrioritizedFuture> {
+		private final int priority;
+		private final long sequence;
+
+		private PrioritizedFuture(final Runnable runnable, final int priority, final long sequence) {
+			super(runnable, null);
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(final PrioritizedFuture o) {
+			final int byPriority = Integer.compare(this.priority, o.priority);
+			return byPriority != 0 ? byPriority : Long.compare(this.sequence, o.sequence);
+		}
+	}
+
 	private final @NonNull Consumer<T> callback;
 
 	private final @NonNull ExecutorService executorService;
 
+	private final @NonNull LongAdder executionsCount = new LongAdder();
+
 	private final @NonNull Function<T, K> keyFunction;
 
-	private final @NonNull Map<K, Future<?>> queued = new LinkedHashMap<>();
+	private final @NonNull ToIntFunction<T> priorityFunction;
+
+	private final @NonNull Map<K, QueuedTask<T>> queued = new HashMap<>();
+
+	/**
+	 * Number of tasks that are queued or running. Modified under monitor, but can
+	 * be read without it.
+	 */
+	private final @NonNull AtomicInteger queueDepth = new AtomicInteger(0);
+
+	/**
+	 * Number of executions requested while task was running. Modified under
+	 * monitor.
+	 */
+	private long rerunsCount = 0;
+
+	/**
+	 * Number of submitted tasks, used to keep FIFO order of tasks with the same
+	 * priority. Modified under monitor.
+	 */
+	private long submitted = 0;
 
 	public PaintingExecutorService(final Function<T, K> keyFunction, final Consumer<T> callback) {
+		this(keyFunction, callback, 1);
+	}
+
+	public PaintingExecutorService(final Function<T, K> keyFunction, final Consumer<T> callback,
+			final int parallelism) {
+		this(keyFunction, callback, parallelism, task -> 0);
+	}
+
+	public PaintingExecutorService(final Function<T, K> keyFunction, final Consumer<T> callback,
+			final int parallelism, final ToIntFunction<T> priorityFunction) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive, but was " + parallelism);
+		}
+
 		this.keyFunction = keyFunction;
 		this.callback = callback;
+		this.priorityFunction = priorityFunction;
 
-//		final int availableProcessors = Runtime.getRuntime().availableProcessors();
-		final int availableProcessors = 1;
-		this.executorService = Executors.newFixedThreadPool(availableProcessors);
+		this.executorService = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<>(),
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("secan4j-painting-%d").build());
 	}
 
-	public synchronized Future<?> queue(T task) {
-		final K key = keyFunction.apply(task);
-
-		Future<?> future = queued.get(key);
-		if (future != null && !future.isDone()) {
-			return future;
+	private void execute(final K key, final QueuedTask<T> queuedTask) {
+		synchronized (this) {
+			queuedTask.running = true;
 		}
 
-		future = executorService.submit(() -> {
-			try {
-				callback.accept(task);
-			} catch (Throwable exc) {
-				log.error("Unhandled exception: " + exc, exc);
-			} finally {
-				synchronized (PaintingExecutorService.this) {
+		executionsCount.increment();
+		try {
+			callback.accept(queuedTask.task);
+		} catch (Throwable exc) {
+			log.error("Unhandled exception: " + exc, exc);
+		} finally {
+			synchronized (this) {
+				queuedTask.running = false;
+				if (queuedTask.rerunRequested) {
+					queuedTask.rerunRequested = false;
+					submit(key, queuedTask);
+				} else {
 					queued.remove(key);
+					if (queueDepth.decrementAndGet() == 0) {
+						notifyAll();
+					}
 				}
 			}
-		});
-		queued.put(key, future);
-
-		return future;
+		}
 	}
 
-	public void waitForAllTasksToComplete() {
-		Optional<Future<?>> op;
-		do {
-			synchronized (this) {
-				op = queued.values().stream().filter(Predicate.not(Future::isDone)).findAny();
-			}
-			try {
-				op.get().get();
-			} catch (Exception exc) {
-				// ignore
+	public synchronized Future<?> queue(T task) {
+		final K key = keyFunction.apply(task);
+
+		QueuedTask<T> queuedTask = queued.get(key);
+		if (queuedTask != null) {
+			if (queuedTask.running && !queuedTask.rerunRequested) {
+				queuedTask.rerunRequested = true;
+				rerunsCount++;
 			}
-		} while (op.isPresent());
+			return queuedTask.future;
+		}
+
+		queuedTask = new QueuedTask<>(task);
+		queued.put(key, queuedTask);
+		queueDepth.incrementAndGet();
+		submit(key, queuedTask);
+
+		return queuedTask.future;
+	}
+
+	/**
+	 * Moves waiting task to the position according to its current priority, shall
+	 * be called after priority of task was changed. Does nothing if task is not
+	 * queued, is already running or its priority is the same.
+	 */
+	public synchronized void reprioritize(final T task) {
+		final K key = keyFunction.apply(task);
+		final QueuedTask<T> queuedTask = queued.get(key);
+		if (queuedTask == null || queuedTask.running
+				|| ((PrioritizedFuture) queuedTask.future).priority == priorityFunction.applyAsInt(task)) {
+			return;
+		}
+
+		// not removed if already taken by worker thread, it will be executed soon
+		if (((ThreadPoolExecutor) executorService).remove((Runnable) queuedTask.future)) {
+			submit(key, queuedTask);
+		}
+	}
+
+	private void submit(final K key, final QueuedTask<T> queuedTask) {
+		assert Thread.holdsLock(this);
+		final PrioritizedFuture future = new PrioritizedFuture(() -> execute(key, queuedTask),
+				priorityFunction.applyAsInt(queuedTask.task), submitted++);
+		queuedTask.future = future;
+		executorService.execute(future);
+	}
+
+	/**
+	 * @return number of task executions started since creation
+	 */
+	public long getExecutionsCount() {
+		return executionsCount.sum();
+	}
+
+	/**
+	 * @return number of times task was queued again while being executed
+	 */
+	public synchronized long getRerunsCount() {
+		return rerunsCount;
+	}
+
+	/**
+	 * @return number of tasks that are queued or being executed right now
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * @return <code>true</code> if task is queued or being executed right now
+	 */
+	public synchronized boolean isQueued(final T task) {
+		return queued.containsKey(keyFunction.apply(task));
+	}
+
+	/**
+	 * Blocks until there are no queued or running tasks. Waiting thread is woken
+	 * up only when last task completes.
+	 */
+	public synchronized void waitForAllTasksToComplete() throws InterruptedException {
+		while (queueDepth.get() != 0) {
+			wait();
+		}
 	}
 
 }
@@ -1,27 +1,40 @@
 package io.github.vlsergey.secan4j.core.session;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.singleton;
 import static java.util.Collections.unmodifiableSet;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
 import com.google.common.base.Functions;
 
+import io.github.vlsergey.secan4j.core.colored.ColorApplier;
 import io.github.vlsergey.secan4j.core.colored.ColoredObject;
 import io.github.vlsergey.secan4j.core.colored.GraphColorer;
+import io.github.vlsergey.secan4j.core.colored.PaintedColor;
 import io.github.vlsergey.secan4j.core.colored.TraceItem;
 import io.github.vlsergey.secan4j.core.colored.brushes.ColorPaintBrush;
 import io.github.vlsergey.secan4j.core.colored.brushes.CompositionNodeBrush;
@@ -36,6 +49,7 @@ import io.github.vlsergey.secan4j.core.colorless.Invocation;
 import io.github.vlsergey.secan4j.core.session.PaintingTask.Result;
 import io.github.vlsergey.secan4j.core.user2command.UserToCommandInjectionColorer;
 import io.github.vlsergey.secan4j.data.DataProvider;
+import io.github.vlsergey.secan4j.data.SecanData;
 import javassist.ClassPool;
 import javassist.CtBehavior;
 import javassist.CtClass;
@@ -43,6 +57,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 @Data
@@ -53,7 +68,30 @@ public class PaintingSession {
 	@Getter
 	private static class CurrentTaskInfo {
 		private final PaintingTask currentTask;
-		private final Set<PaintingTask> newDependencies = new HashSet<PaintingTask>(0);
+		/**
+		 * Names of classes those configuration was looked up by tasks of the same
+		 * method, see {@link PaintingSession#configurationLookups}
+		 */
+		private final Set<String> configurationLookups;
+		/**
+		 * Names of classes those methods were called by tasks of the same method
+		 * without creating tasks for them, see
+		 * {@link PaintingSession#skippedCalleeClasses}
+		 */
+		private final Set<String> skippedCalleeClasses;
+		/**
+		 * Tasks pinned in {@link PaintingTaskStore} by current execution
+		 */
+		private final List<PaintingTask> pinned = new ArrayList<>(0);
+		/**
+		 * Dependencies used during current execution with results (maybe
+		 * <code>null</code>) those were seen by current task
+		 */
+		private final Map<PaintingTask, Result> newDependencies = new HashMap<>(0);
+	}
+
+	private static @NonNull String getMethodId(final @NonNull PaintingTask.TaskKey key) {
+		return key.getClassName() + "." + key.getMethodName() + key.getMethodSignature();
 	}
 
 	private static <T> boolean hasNonNull(@NonNull T[] array) {
@@ -64,11 +102,27 @@ public class PaintingSession {
 		return false;
 	}
 
-	// TODO: cleanup is surely needed
-	private final @NonNull Map<PaintingTask.TaskKey, PaintingTask> allNodes = new ConcurrentHashMap<>();
-
 	private final @NonNull ClassPool classPool;
 
+	/**
+	 * Names of classes those configuration was looked up while executing tasks
+	 * of method (see {@link PaintingTask.TaskKey#withoutColors()}). Kept per
+	 * method rather than per task, because initial colors of method graph are
+	 * calculated (and configuration is looked up) only once for all tasks of
+	 * method, see {@link GraphColorer}.
+	 */
+	private final @NonNull Map<PaintingTask.TaskKey, Set<String>> configurationLookups = new ConcurrentHashMap<>();
+
+	private final @NonNull MethodContextsBudget contextsBudget;
+
+	/**
+	 * Names of classes those methods were called while executing tasks of method
+	 * (see {@link PaintingTask.TaskKey#withoutColors()}), but were not analyzed
+	 * (like empty methods). There are no tasks for such callees, so their classes
+	 * have to be added to bytecode hashes of stored summaries explicitly.
+	 */
+	private final @NonNull Map<PaintingTask.TaskKey, Set<String>> skippedCalleeClasses = new ConcurrentHashMap<>();
+
 	private final @NonNull AtomicLong currentHeapVersion = new AtomicLong(0);
 
 	private final ThreadLocal<CurrentTaskInfo> currentTaskHolder = new ThreadLocal<>();
@@ -79,16 +133,87 @@ public class PaintingSession {
 
 	private final @NonNull GraphColorer graphColorer;
 
+	/**
+	 * Levels of tasks used as execution priorities: callees are executed before
+	 * callers and mutually recursive tasks reach fixpoint before their dependants
+	 * are notified
+	 */
+	private final @NonNull StronglyConnectedLevels levels = new StronglyConnectedLevels();
+
+	private final @NonNull SessionMetrics metrics = new SessionMetrics(this);
+
 	private final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection;
 
+	private final @NonNull PaintingTaskStore taskStore;
+
+	private final @NonNull PaintingSessionSettings settings;
+
+	/**
+	 * Tasks those results were loaded from or stored to {@link #summaryStore},
+	 * mapped to stored entries. Entries are removed together with tasks: when task
+	 * is evicted from {@link #taskStore} or root task is released.
+	 */
+	private final @NonNull Map<PaintingTask, MethodSummaryStore.Entry> storedSummaries = new ConcurrentHashMap<>();
+
+	private final @Nullable MethodSummaryStore summaryStore;
+
+	/**
+	 * Colors are propagated without traces and intersections are not reported
+	 * during analysis, but entry points with intersections are reanalyzed by
+	 * separate traced session afterwards, see {@link #reportWithTraces(List)}
+	 */
+	private final boolean traceFree;
+
+	/**
+	 * Methods (see {@link #getMethodId(PaintingTask.TaskKey)}) during analysis of
+	 * which source-sink intersections were found. Results of such methods (and
+	 * their dependants) are not persisted, otherwise intersections would not be
+	 * reported on next run.
+	 */
+	private final @NonNull Set<String> methodsWithIntersections = newSetFromMap(
+			new ConcurrentHashMap<>());
+
 	public PaintingSession(final @NonNull ClassPool classPool,
 			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection) {
-		this.onSourceSinkIntersection = onSourceSinkIntersection;
+		this(classPool, onSourceSinkIntersection, new PaintingSessionSettings());
+	}
+
+	public PaintingSession(final @NonNull ClassPool classPool,
+			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection,
+			final @NonNull PaintingSessionSettings settings) {
+		// marker tasks of parametric summaries (also used for contexts beyond the
+		// budget) are recognized by trace items
+		this(classPool, onSourceSinkIntersection, settings, settings.isTraceFree()
+				&& !settings.isParametricSummaries() && settings.getMaxContextsPerMethod() == Integer.MAX_VALUE);
+	}
 
-		this.executorService = new PaintingExecutorService<>(Functions.identity(), this::executeTask);
+	private PaintingSession(final @NonNull ClassPool classPool,
+			final @NonNull BiConsumer<TraceItem, TraceItem> onSourceSinkIntersection,
+			final @NonNull PaintingSessionSettings settings, final boolean traceFree) {
+		this.onSourceSinkIntersection = onSourceSinkIntersection;
+		this.settings = settings;
+		this.traceFree = traceFree;
+
+		this.executorService = new PaintingExecutorService<>(Functions.identity(), this::executeTask,
+				settings.getParallelism(), this::getPriority);
+		this.contextsBudget = new MethodContextsBudget(settings.getMaxContextsPerMethod());
+		this.taskStore = new PaintingTaskStore(settings.getTasksHeapBudget(), task -> !executorService.isQueued(task),
+				levels::getComponent, task -> {
+					storedSummaries.remove(task);
+					contextsBudget.release(task.getArguments());
+				});
 
 		this.classPool = classPool;
-		this.dataProvider = new DataProvider();
+		this.dataProvider = new DataProvider(settings.getConfigurationSources()) {
+			@Override
+			public @NonNull SecanData getDataForClass(final @NonNull String fqcn) {
+				onConfigurationLookup(fqcn);
+				return super.getDataForClass(fqcn);
+			}
+		};
+		// brushes of all threads look configuration up, it shall not be parsed meanwhile
+		this.dataProvider.preload();
+		this.dataProvider.addChangeListener(this::onConfigurationChange);
 
 		final UserToCommandInjectionColorer colorProvider = new UserToCommandInjectionColorer(dataProvider);
 
@@ -100,7 +225,13 @@ public class PaintingSession {
 				new CopierBrush(dataProvider), new ParentAttributesDefinerBrush(dataProvider),
 				new InvocationsBrush(this), new InvokeDynamicBrush());
 
-		this.graphColorer = new GraphColorer(initialBrushes, repeatableBrushes);
+		this.graphColorer = new GraphColorer(initialBrushes, repeatableBrushes, settings.getMethodGraphsCacheWeight(),
+				traceFree);
+
+		// results without traces shall not be mixed with traced ones
+		this.summaryStore = settings.getSummaryCacheDirectory() == null ? null
+				: new MethodSummaryStore(settings.getSummaryCacheDirectory(), classPool, dataProvider,
+						traceFree ? "trace-free" : "traced");
 	}
 
 	public @Nullable ColoredObject[][] analyze(CtBehavior ctMethod) throws ExecutionException, InterruptedException {
@@ -109,18 +240,140 @@ public class PaintingSession {
 
 	public @Nullable ColoredObject[][] analyze(CtBehavior ctMethod, ColoredObject ins[], ColoredObject outs[])
 			throws ExecutionException, InterruptedException {
-		PaintingTask paintingTask = new PaintingTask(ctMethod, ins, outs);
+		if (settings.isParametricSummaries() && (ins != null || outs != null)) {
+			return analyzeParametric(ctMethod, ins, outs);
+		}
+
+		PaintingTask paintingTask = newTask(new PaintingTask.TaskKey(ctMethod, ins, outs));
 		queueImpl(paintingTask, QueueReason.ANALYZE_REQUEST);
 
 		this.executorService.waitForAllTasksToComplete();
 		log.debug("All task completed");
+		storeSummaries(singleton(paintingTask));
+		final List<PaintingTask> withIntersections = findRootTasksWithIntersections(singleton(paintingTask));
+		releaseRootTasks(singleton(paintingTask));
+		reportWithTraces(withIntersections);
+		return toAnalyzeResult(paintingTask);
+	}
+
+	/**
+	 * Analyzes all entry points in a single pass: all of them are queued at once
+	 * and waited for completion only once, so shared callees are analyzed only
+	 * once and threads always have work to do.
+	 * 
+	 * @return analysis results for each of entry points, in the same order
+	 */
+	public @NonNull Map<CtBehavior, ColoredObject[][]> analyze(final @NonNull List<? extends CtBehavior> ctMethods)
+			throws ExecutionException, InterruptedException {
+		final Map<CtBehavior, PaintingTask> paintingTasks = new LinkedHashMap<>(ctMethods.size());
+		for (CtBehavior ctMethod : ctMethods) {
+			final PaintingTask paintingTask = newTask(new PaintingTask.TaskKey(ctMethod, null, null));
+			paintingTasks.put(ctMethod, paintingTask);
+			queueImpl(paintingTask, QueueReason.ANALYZE_REQUEST);
+		}
+
+		this.executorService.waitForAllTasksToComplete();
+		log.debug("All task completed");
+		storeSummaries(paintingTasks.values());
+		final List<PaintingTask> withIntersections = findRootTasksWithIntersections(paintingTasks.values());
+		releaseRootTasks(paintingTasks.values());
+		reportWithTraces(withIntersections);
+
+		final Map<CtBehavior, ColoredObject[][]> results = new LinkedHashMap<>(ctMethods.size());
+		paintingTasks.forEach((ctMethod, paintingTask) -> results.put(ctMethod, toAnalyzeResult(paintingTask)));
+		return results;
+	}
+
+	/**
+	 * Analyzes method with given colors using its parametric summary: base task
+	 * and marker tasks for slots with given colors
+	 */
+	private @Nullable ColoredObject[][] analyzeParametric(final @NonNull CtBehavior ctMethod,
+			final @Nullable ColoredObject[] ins, final @Nullable ColoredObject[] outs)
+			throws ExecutionException, InterruptedException {
+		final PaintingTask baseTask = newTask(new PaintingTask.TaskKey(ctMethod, null, null));
+		queueImpl(baseTask, QueueReason.ANALYZE_REQUEST);
+		this.executorService.waitForAllTasksToComplete();
+
+		final Result base = baseTask.getResult();
+		if (base == null) {
+			return null;
+		}
+		final ColoredObject[] actualIns = ins != null ? ins : new ColoredObject[base.getResultIns().length];
+		final ColoredObject[] actualOuts = outs != null ? outs : new ColoredObject[base.getResultOuts().length];
+
+		final Map<Integer, PaintingTask> markerTasks = new HashMap<>();
+		for (int slot = 0; slot < actualIns.length + actualOuts.length; slot++) {
+			final ColoredObject actual = slot < actualIns.length ? actualIns[slot]
+					: actualOuts[slot - actualIns.length];
+			if (actual != null) {
+				final PaintingTask markerTask = newTask(ParametricSummaries.newMarkerTaskKey(ctMethod,
+						actualIns.length, actualOuts.length, slot));
+				markerTasks.put(slot, markerTask);
+				queueImpl(markerTask, QueueReason.ANALYZE_REQUEST);
+			}
+		}
+		this.executorService.waitForAllTasksToComplete();
+		log.debug("All task completed");
+
+		final List<PaintingTask> rootTasks = new ArrayList<>(markerTasks.values());
+		rootTasks.add(baseTask);
+		storeSummaries(rootTasks);
+		releaseRootTasks(rootTasks);
+
+		final ColoredObject[] resultIns = actualIns.clone();
+		final ColoredObject[] resultOuts = actualOuts.clone();
+		final BiConsumer<PaintedColor, PaintedColor> problemReporter = ColorApplier
+				.toProblemsReporter(onSourceSinkIntersection);
+		ParametricSummaries.instantiate(ctMethod, actualIns, actualOuts, base,
+				slot -> markerTasks.get(slot).getResult(), null, (slot, color) -> {
+					if (slot < resultIns.length) {
+						resultIns[slot] = ColoredObject.merge(resultIns[slot], color, problemReporter);
+					} else {
+						resultOuts[slot - resultIns.length] = ColoredObject
+								.merge(resultOuts[slot - resultIns.length], color, problemReporter);
+					}
+				});
+		return new ColoredObject[][] { resultIns, resultOuts };
+	}
+
+	private static @Nullable ColoredObject[][] toAnalyzeResult(final @NonNull PaintingTask paintingTask) {
 		final Result result = paintingTask.getResult();
 		return result == null ? null : new ColoredObject[][] { result.getResultIns(), result.getResultOuts() };
 	}
 
+	/**
+	 * @return execution priority of task (tasks with lower values are executed
+	 *         first): level of its strongly connected component, see
+	 *         {@link #levels}
+	 */
+	protected int getPriority(final @NonNull PaintingTask task) {
+		return levels.getLevel(task);
+	}
+
+	/**
+	 * @return number of tasks those are queued or being executed right now
+	 */
+	public int getQueueDepth() {
+		return executorService.getQueueDepth();
+	}
+
+	/**
+	 * Executes (colors) single task. May be called concurrently from several
+	 * threads, but never for the same task at once (guaranteed by
+	 * {@link PaintingExecutorService}).
+	 */
 	protected @NonNull void executeTask(final @NonNull PaintingTask task) {
 		assert currentTaskHolder.get() == null : "executeTask() is not allowed to be called recursively";
-		currentTaskHolder.set(new CurrentTaskInfo(task));
+		currentTaskHolder.set(new CurrentTaskInfo(task,
+				configurationLookups.computeIfAbsent(task.getArguments().withoutColors(),
+						key -> newSetFromMap(new ConcurrentHashMap<>())),
+				skippedCalleeClasses.computeIfAbsent(task.getArguments().withoutColors(),
+						key -> newSetFromMap(new ConcurrentHashMap<>()))));
+		metrics.onExecuted(task.getClassName(), getMethodId(task.getArguments()), task.getQueueReason());
+
+		final TaskExecutionEvent event = new TaskExecutionEvent();
+		event.begin();
 
 		try {
 			final @NonNull CtBehavior method = task.getMethod(classPool);
@@ -131,11 +384,21 @@ public class PaintingSession {
 			// XXX: push down to arg type?
 			final @NonNull CtClass ctClass = method.getDeclaringClass();
 
+			final BiConsumer<TraceItem, TraceItem> onTaskSourceSinkIntersection = (source, sink) -> {
+				methodsWithIntersections.add(getMethodId(task.getArguments()));
+				if (!traceFree) {
+					onSourceSinkIntersection.accept(source, sink);
+				}
+			};
+
 			final long usedHeapVersion = currentHeapVersion.get();
-			Optional<ColoredObject[][]> opUpdated = graphColorer.color(ctClass, method, task.getParamIns(),
-					task.getParamOuts(), onSourceSinkIntersection);
+			Optional<ColoredObject[][]> opUpdated = ParametricSummaries.isMarkerTask(task.getArguments())
+					? graphColorer.colorFlows(ctClass, method, task.getParamIns(), task.getParamOuts())
+					: graphColorer.color(ctClass, method, task.getParamIns(), task.getParamOuts(),
+							onTaskSourceSinkIntersection);
 
-			final Set<PaintingTask> newDependencies = currentTaskHolder.get().getNewDependencies();
+			final Map<PaintingTask, Result> seenDependencyResults = currentTaskHolder.get().getNewDependencies();
+			final Set<PaintingTask> newDependencies = seenDependencyResults.keySet();
 
 			final Set<PaintingTask> oldDependencies = task.getDependencies();
 			task.setDependencies(
@@ -152,10 +415,24 @@ public class PaintingSession {
 			});
 			oldDependencies.stream().filter(dep -> !newDependencies.contains(dep)).forEach(dep -> {
 				dep.removeDependant(task);
+				taskStore.release(dep);
 			});
+			if (!newDependencies.equals(oldDependencies)) {
+				// waiting dependants shall not keep stale levels as priorities
+				levels.invalidate(task).forEach(executorService::reprioritize);
+			}
 
-			// TODO: here is a good place to insert cleanup callback if no task are waiting
-			// for callback from task
+			/*
+			 * dependency could be completed by another thread after we read its result,
+			 * but before we were registered as dependant -- in this case we won't be
+			 * notified, so need to recheck ourselves
+			 */
+			seenDependencyResults.forEach((dep, seenResult) -> {
+				if (dep.getResult() != seenResult) {
+					log.debug("Result of dependency {} was changed during execution of {}", dep, task);
+					this.queueImpl(task, QueueReason.DEPENDENCY_UPDATE);
+				}
+			});
 
 			// schedule dependencies
 			newDependencies.forEach(d -> this.queueImpl(d, QueueReason.DEPENDANT_REQUEST));
@@ -175,9 +452,12 @@ public class PaintingSession {
 							method.getLongName(), updated[0], updated[1]);
 
 				task.setResult(new Result(updated[0], updated[1], usedHeapVersion));
+				storedSummaries.remove(task);
+				event.resultChanged = true;
 
-				// update only if not all null
-				if (hasNonNull(updated[0]) || hasNonNull(updated[1])) {
+				// update only if not all null (before and after, configuration could be changed)
+				if (hasNonNull(updated[0]) || hasNonNull(updated[1]) || prevResults != null
+						&& (hasNonNull(prevResults.getResultIns()) || hasNonNull(prevResults.getResultOuts()))) {
 					log.debug("…and invoke update listeners: {}", task.getDependants());
 					task.getDependants().forEach(d -> this.queueImpl(d, QueueReason.DEPENDENCY_UPDATE));
 				} else {
@@ -192,7 +472,19 @@ public class PaintingSession {
 			log.error("Unable to execute colorizing task for " + task.getMethodName() + ": " + exc.getMessage(), exc);
 			// no, we don't requeue after error
 		} finally {
+			currentTaskHolder.get().getPinned().forEach(taskStore::unpin);
 			currentTaskHolder.remove();
+
+			taskStore.update(task);
+			taskStore.release(task);
+			taskStore.evictIfNeeded();
+
+			if (event.shouldCommit()) {
+				event.method = getMethodId(task.getArguments());
+				event.queueReason = String.valueOf(task.getQueueReason());
+				event.dependencies = task.getDependencies().size();
+				event.commit();
+			}
 		}
 	}
 
@@ -233,19 +525,35 @@ public class PaintingSession {
 
 			if (invMethod.isEmpty()) {
 				log.debug("Skip method {}(…) analysis (empty method)", invocation.getMethodName());
+				// method may become non-empty in declaring class or be overridden in
+				// (refined) called class
+				currentTaskInfo.getSkippedCalleeClasses().add(invClass.getName());
+				currentTaskInfo.getSkippedCalleeClasses().add(invMethod.getDeclaringClass().getName());
 				return emptyMap();
 			}
 
+			// subcalls of marker tasks are interesting only as flows of marker color
+			if (settings.isParametricSummaries()
+					|| ParametricSummaries.isMarkerTask(currentTaskInfo.getCurrentTask().getArguments())) {
+				return getOrQueueSummary(currentTaskInfo, invocation, invMethod, ins, outs);
+			}
+
 			final ColoredObject[] updatedIns = new ColoredObject[ins.length];
 			final ColoredObject[] updatedOuts = new ColoredObject[outs.length];
 
-			ColoredObject.demultiplex(ins, (singleClassIns) -> {
+			// too many combinations are not even enumerated, merged arguments are used
+			// as is instead
+			final List<ColoredObject[]> insVariants = new ArrayList<>(1);
+			if (contextsBudget.fitsIntoBudget(ColoredObject.demultiplexedCount(ins))) {
+				ColoredObject.demultiplex(ins, insVariants::add);
+			} else {
+				insVariants.add(ins);
+			}
 
-				final PaintingTask subCallTask = allNodes
-						.computeIfAbsent(new PaintingTask.TaskKey(invMethod, singleClassIns, outs), PaintingTask::new);
-				currentTaskInfo.getNewDependencies().add(subCallTask);
+			final List<ColoredObject[]> beyondBudget = new ArrayList<>(0);
+			for (PaintingTask.TaskKey key : contextsBudget.admit(invMethod, insVariants, outs, beyondBudget::add)) {
+				final Result cached = getSubcallResult(currentTaskInfo, key);
 
-				final Result cached = subCallTask.getResult();
 				if (cached != null) {
 					for (int i = 0; i < ins.length; i++) {
 						updatedIns[i] = ColoredObject.mergeToMostDangerous(updatedIns[i], cached.getResultIns()[i]);
@@ -254,7 +562,7 @@ public class PaintingSession {
 						updatedOuts[i] = ColoredObject.mergeToMostDangerous(updatedOuts[i], cached.getResultOuts()[i]);
 					}
 				}
-			});
+			}
 
 			final Map<DataNode, ColoredObject> result = new HashMap<>(outs.length + ins.length);
 			final BiConsumer<DataNode[], ColoredObject[]> toResult = (dataNodes, colors) -> {
@@ -268,6 +576,11 @@ public class PaintingSession {
 
 			toResult.accept(invocation.getParameters(), updatedIns);
 			toResult.accept(invocation.getResults(), updatedOuts);
+
+			for (ColoredObject[] beyondBudgetIns : beyondBudget) {
+				getOrQueueSummary(currentTaskInfo, invocation, invMethod, beyondBudgetIns, outs)
+						.forEach((dataNode, color) -> result.merge(dataNode, color, ColoredObject::mergeToMostDangerous));
+			}
 			return result;
 		} catch (Exception exc) {
 			log.warn("Unable to go deeper: " + exc.getMessage(), exc);
@@ -275,13 +588,251 @@ public class PaintingSession {
 		}
 	}
 
+	/**
+	 * Creates new task, using persisted results (if any) as already calculated
+	 * ones
+	 */
+	private @NonNull PaintingTask newTask(final @NonNull PaintingTask.TaskKey key) {
+		final PaintingTask task = new PaintingTask(key);
+		metrics.onTaskCreated();
+		if (summaryStore != null) {
+			summaryStore.load(key).ifPresent(entry -> {
+				task.setResult(new Result(entry.getResultIns(), entry.getResultOuts(), currentHeapVersion.get()));
+				storedSummaries.put(task, entry);
+			});
+		}
+		return task;
+	}
+
+	/**
+	 * Records configuration lookup of current task, if any, so task can be
+	 * reexecuted (and its persisted results invalidated) when configuration of
+	 * class is changed
+	 */
+	private void onConfigurationLookup(final @NonNull String fqcn) {
+		final CurrentTaskInfo currentTaskInfo = currentTaskHolder.get();
+		// the same classes are looked up on every coloring round, avoid writes then
+		if (currentTaskInfo != null && !currentTaskInfo.getConfigurationLookups().contains(fqcn)) {
+			currentTaskInfo.getConfigurationLookups().add(fqcn);
+		}
+	}
+
+	/**
+	 * Queues tasks of methods those looked configuration of changed packages up
+	 * to be executed again, with initial colors of their graphs recalculated.
+	 * Their dependants are queued as usual if results are changed. New results
+	 * are available to the next {@link #analyze(List)} call.
+	 */
+	private void onConfigurationChange(final @NonNull Set<String> packages) {
+		final Predicate<Collection<String>> isAffected = classNames -> classNames.stream()
+				.anyMatch(fqcn -> DataProvider.isInPackages(fqcn, packages));
+
+		final Set<PaintingTask.TaskKey> affectedMethods = new HashSet<>();
+		configurationLookups.forEach((method, lookups) -> {
+			if (isAffected.test(lookups)) {
+				affectedMethods.add(method);
+			}
+		});
+		storedSummaries.forEach((task, entry) -> {
+			if (isAffected.test(entry.getConfigurationHashes().keySet())) {
+				affectedMethods.add(task.getArguments().withoutColors());
+			}
+		});
+
+		affectedMethods.forEach(method -> graphColorer.invalidateMethodGraph(method.getClassName(),
+				method.getMethodName(), method.getMethodSignature()));
+		for (PaintingTask task : taskStore.values()) {
+			if (affectedMethods.contains(task.getArguments().withoutColors())) {
+				storedSummaries.remove(task);
+				queueImpl(task, QueueReason.CONFIGURATION_UPDATE);
+			}
+		}
+	}
+
+	/**
+	 * @return entry with bytecode hashes of all classes of task, its
+	 *         (transitive) dependencies and callees those were not analyzed
+	 *         (see {@link #skippedCalleeClasses}) and configuration hashes of classes those
+	 *         configuration was looked up by them or empty {@link Optional} if
+	 *         task results shall not be persisted
+	 */
+	private @NonNull Optional<MethodSummaryStore.Entry> toSummaryEntry(final @NonNull PaintingTask task,
+			final @NonNull Result result) {
+		final Map<String, String> classHashes = new TreeMap<>();
+		final Map<String, String> configurationHashes = new TreeMap<>();
+		final Set<PaintingTask> visited = new HashSet<>();
+		final Deque<PaintingTask> toVisit = new ArrayDeque<>();
+		toVisit.add(task);
+
+		while (!toVisit.isEmpty()) {
+			final PaintingTask current = toVisit.poll();
+			if (!visited.add(current)) {
+				continue;
+			}
+
+			final MethodSummaryStore.Entry known = storedSummaries.get(current);
+			if (known != null) {
+				classHashes.putAll(known.getClassHashes());
+				configurationHashes.putAll(known.getConfigurationHashes());
+				continue;
+			}
+
+			if (methodsWithIntersections.contains(getMethodId(current.getArguments()))) {
+				return Optional.empty();
+			}
+
+			final Set<String> usedClasses = new HashSet<>(
+					skippedCalleeClasses.getOrDefault(current.getArguments().withoutColors(), emptySet()));
+			usedClasses.add(current.getClassName());
+			for (String className : usedClasses) {
+				final Optional<String> classHash = summaryStore.getClassHash(className);
+				if (classHash.isEmpty()) {
+					return Optional.empty();
+				}
+				classHashes.put(className, classHash.get());
+			}
+			configurationLookups.getOrDefault(current.getArguments().withoutColors(), emptySet())
+					.forEach(fqcn -> configurationHashes.put(fqcn, dataProvider.getConfigurationHash(fqcn)));
+			toVisit.addAll(current.getDependencies());
+		}
+		return Optional.of(new MethodSummaryStore.Entry(classHashes, configurationHashes, result.getResultIns(),
+				result.getResultOuts()));
+	}
+
+	/**
+	 * @return root tasks those (transitive) dependencies include methods with
+	 *         source-sink intersections. Always empty unless session is
+	 *         {@link #traceFree}.
+	 */
+	private @NonNull List<PaintingTask> findRootTasksWithIntersections(
+			final @NonNull Collection<PaintingTask> rootTasks) {
+		if (!traceFree || methodsWithIntersections.isEmpty()) {
+			return emptyList();
+		}
+
+		final List<PaintingTask> result = new ArrayList<>();
+		for (PaintingTask rootTask : rootTasks) {
+			final Set<PaintingTask> visited = new HashSet<>();
+			final Deque<PaintingTask> toVisit = new ArrayDeque<>();
+			toVisit.add(rootTask);
+
+			while (!toVisit.isEmpty()) {
+				final PaintingTask current = toVisit.poll();
+				if (!visited.add(current)) {
+					continue;
+				}
+				if (methodsWithIntersections.contains(getMethodId(current.getArguments()))) {
+					result.add(rootTask);
+					break;
+				}
+				toVisit.addAll(current.getDependencies());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reanalyzes given root tasks of trace-free session by new session with traces
+	 * to report found intersections with full traces. Only call subtrees of the
+	 * given tasks are colored again.
+	 */
+	@SneakyThrows
+	private void reportWithTraces(final @NonNull List<PaintingTask> rootTasks) {
+		if (rootTasks.isEmpty()) {
+			return;
+		}
+
+		log.info("Reanalyze {} entry point(s) with source-sink intersections to reconstruct traces",
+				rootTasks.size());
+		final PaintingSession tracedSession = new PaintingSession(classPool, onSourceSinkIntersection, settings,
+				false);
+		for (PaintingTask rootTask : rootTasks) {
+			tracedSession.analyze(rootTask.getMethod(classPool), rootTask.getParamIns(), rootTask.getParamOuts());
+		}
+	}
+
+	/**
+	 * Unlinks completed root tasks from their dependencies, so the latter can be
+	 * evicted from {@link #taskStore} if needed
+	 */
+	private void releaseRootTasks(final @NonNull Collection<PaintingTask> rootTasks) {
+		for (PaintingTask rootTask : rootTasks) {
+			for (PaintingTask dependency : rootTask.getDependencies()) {
+				if (dependency != rootTask) {
+					dependency.removeDependant(rootTask);
+					taskStore.release(dependency);
+				}
+			}
+			rootTask.setDependencies(emptySet());
+			storedSummaries.remove(rootTask);
+		}
+		taskStore.evictIfNeeded();
+	}
+
+	private void storeSummaries(final @NonNull Collection<PaintingTask> rootTasks) {
+		if (summaryStore == null) {
+			return;
+		}
+
+		Stream.concat(rootTasks.stream(), taskStore.values().stream()).forEach(task -> {
+			final Result result = task.getResult();
+			if (result == null || storedSummaries.containsKey(task)) {
+				return;
+			}
+
+			toSummaryEntry(task, result).ifPresent(entry -> {
+				summaryStore.store(task.getArguments(), entry);
+				storedSummaries.put(task, entry);
+			});
+		});
+	}
+
+	/**
+	 * Instantiates parametric summary of invoked method at call site. Base task of
+	 * invoked method is not used during marker tasks execution, because only flows
+	 * of marker color are interesting there.
+	 */
+	private @NonNull Map<DataNode, ColoredObject> getOrQueueSummary(final @NonNull CurrentTaskInfo currentTaskInfo,
+			final @NonNull Invocation invocation, final @NonNull CtBehavior invMethod,
+			final @NonNull ColoredObject[] ins, final @NonNull ColoredObject[] outs) {
+		final boolean markerTask = ParametricSummaries.isMarkerTask(currentTaskInfo.getCurrentTask().getArguments());
+		final Result base = markerTask ? null
+				: getSubcallResult(currentTaskInfo, new PaintingTask.TaskKey(invMethod, null, null));
+
+		final Map<DataNode, ColoredObject> result = new HashMap<>(ins.length + outs.length);
+		ParametricSummaries.instantiate(invMethod, ins, outs, base,
+				slot -> getSubcallResult(currentTaskInfo,
+						ParametricSummaries.newMarkerTaskKey(invMethod, ins.length, outs.length, slot)),
+				invocation.getCallSourceCodePosition(), (slot, color) -> {
+					final DataNode dataNode = slot < ins.length ? invocation.getParameters()[slot]
+							: invocation.getResults()[slot - ins.length];
+					result.merge(dataNode, color, ColoredObject::mergeToMostDangerous);
+				});
+		return result;
+	}
+
+	/**
+	 * Registers subcall task as dependency of current task (queueing it later) and
+	 * returns its current result
+	 */
+	private @Nullable Result getSubcallResult(final @NonNull CurrentTaskInfo currentTaskInfo,
+			final @NonNull PaintingTask.TaskKey key) {
+		final PaintingTask subCallTask = taskStore.getAndPin(key, this::newTask);
+		currentTaskInfo.getPinned().add(subCallTask);
+		final Result cached = subCallTask.getResult();
+		currentTaskInfo.getNewDependencies().put(subCallTask, cached);
+		return cached;
+	}
+
 	private synchronized void queueImpl(final PaintingTask toQueue, QueueReason reason) {
 		if (toQueue.getResult() != null && reason != QueueReason.DEPENDENCY_UPDATE
+				&& reason != QueueReason.CONFIGURATION_UPDATE
 				&& toQueue.getResult().getVersionOfHeap() == currentHeapVersion.get()) {
 			log.debug("We have results for {}(…) and they are fresh enough", toQueue.getMethodName());
 			return;
 		}
 
+		toQueue.setQueueReason(reason);
 		this.executorService.queue(toQueue);
 	}
 }
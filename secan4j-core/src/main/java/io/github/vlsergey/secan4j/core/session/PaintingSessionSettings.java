@@ -0,0 +1,82 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import io.github.vlsergey.secan4j.core.colored.GraphColorer;
+import io.github.vlsergey.secan4j.data.DataProvider;
+import lombok.Data;
+
+/**
+ * Tuning options of {@link PaintingSession}. Defaults are chosen to keep
+ * analysis results deterministic and memory usage moderate.
+ */
+@Data
+public class PaintingSessionSettings {
+
+	/**
+	 * Directories and jars with additional configuration files, see
+	 * {@link DataProvider#DataProvider(List)}
+	 */
+	private List<Path> configurationSources = Collections.emptyList();
+
+	/**
+	 * Maximum number of distinct contexts (colors of arguments and results) each
+	 * method is analyzed with. Calls with other contexts are analyzed using
+	 * parametric summary of the method (see {@link #isParametricSummaries()}),
+	 * which keeps number of tasks bounded for polymorphic code at the cost of
+	 * precision. Unlimited by default.
+	 */
+	private int maxContextsPerMethod = Integer.MAX_VALUE;
+
+	/**
+	 * Number of threads used to execute {@link PaintingTask}s. Tasks for
+	 * independent call subtrees are executed in parallel, while each single task
+	 * is never executed by two threads at once.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * Analyze each method only once per argument (context-insensitive) instead
+	 * of once per each combination of call site colors. Much faster on large
+	 * applications, but less precise: values passed through the same method from
+	 * different call sites are not distinguished. Summaries model only flows
+	 * between arguments (including <code>this</code>) and results: values stored
+	 * into fields of other objects or static fields are not tracked by summaries.
+	 */
+	private boolean parametricSummaries = false;
+
+	/**
+	 * Limit of colorless method graphs cache, measured in total number of data
+	 * nodes of cached graphs
+	 */
+	private long methodGraphsCacheWeight = GraphColorer.DEFAULT_METHOD_GRAPHS_CACHE_WEIGHT;
+
+	/**
+	 * Estimated heap size (in bytes) that tasks of session may occupy. When it is
+	 * exceeded, completed tasks no other task depends on are evicted (and
+	 * recomputed if needed again).
+	 */
+	private long tasksHeapBudget = Runtime.getRuntime().maxMemory() / 4;
+
+	/**
+	 * Directory to persist analysis results of methods between runs. Results are
+	 * reused only if bytecode and configuration of all involved classes are the
+	 * same. <code>null</code> disables persistence.
+	 */
+	private @Nullable Path summaryCacheDirectory;
+
+	/**
+	 * Find source-sink intersections using colors without traces first, then
+	 * reanalyze only entry points with intersections to report them with full
+	 * traces. Saves memory and time when most of entry points have no findings.
+	 * Ignored together with {@link #isParametricSummaries()} or limited
+	 * {@link #getMaxContextsPerMethod()}, those analyze some calls using
+	 * parametric summaries.
+	 */
+	private boolean traceFree = false;
+
+}
@@ -3,11 +3,13 @@ package io.github.vlsergey.secan4j.core.session;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.newSetFromMap;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
@@ -30,7 +32,9 @@ public class PaintingTask {
 
 	@AllArgsConstructor
 	@Data
-	public static class Result {
+	public static class Result implements Serializable {
+		private static final long serialVersionUID = 1L;
+
 		private final ColoredObject[] resultIns;
 		private final ColoredObject[] resultOuts;
 		private final long versionOfHeap;
@@ -63,22 +67,79 @@ public class PaintingTask {
 			return "<init>".equals(methodName) ? ctClass.getConstructor(methodSignature)
 					: ctClass.getMethod(methodName, methodSignature);
 		}
+
+		/**
+		 * @return key of the same method without colors of arguments and results,
+		 *         i.e. the same for all contexts of method
+		 */
+		@NonNull
+		TaskKey withoutColors() {
+			return paramIns == null && paramOuts == null ? this
+					: new TaskKey(className, methodName, methodSignature, null, null);
+		}
 	}
 
 	@Getter
 	@Delegate
 	private final @NonNull TaskKey arguments;
 
+	/**
+	 * Estimated size of task as accounted by {@link PaintingTaskStore}
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private long accountedSize = 0;
+
+	/**
+	 * Tasks of strongly connected component of task in dependency graph (including
+	 * task itself) or <code>null</code> if not calculated yet. Guarded by
+	 * {@link StronglyConnectedLevels}.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private @Nullable Set<PaintingTask> component;
+
 	private @NonNull Set<PaintingTask> dependants = emptySet();
 
+	/**
+	 * Level of strongly connected component of task in dependency graph or
+	 * <code>-1</code> if not calculated yet. Guarded by
+	 * {@link StronglyConnectedLevels}.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private int level = -1;
+
+	/**
+	 * Reason task was queued last time. Written by thread that queues task, read
+	 * by thread that executes it.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private volatile @Nullable QueueReason queueReason;
+
+	/**
+	 * Modified only by thread that executes this task, but can be read by others
+	 */
 	@Getter
 	@Setter
-	private @NonNull Set<PaintingTask> dependencies = emptySet();
-
+	private volatile @NonNull Set<PaintingTask> dependencies = emptySet();
+
+	/**
+	 * Number of running tasks those are going to become dependants of this task.
+	 * Pinned task is never evicted from {@link PaintingTaskStore}.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	private final @NonNull AtomicInteger pins = new AtomicInteger(0);
+
+	/**
+	 * Written by thread that executes this task, read by threads that execute
+	 * dependant tasks
+	 */
 	@Delegate
 	@Getter
 	@Setter
-	private Result result;
+	private volatile Result result;
 
 	public PaintingTask(final @NonNull CtBehavior ctMethod, final @Nullable ColoredObject[] paramIns,
 			final @Nullable ColoredObject[] paramOuts) {
@@ -105,6 +166,20 @@ public class PaintingTask {
 		return new ArrayList<PaintingTask>(this.dependants);
 	}
 
+	/**
+	 * @param component tasks to ignore, i.e. strongly connected component of this
+	 *                  task (mutually recursive calls)
+	 * @return <code>true</code> if any task except given ones depends on this task
+	 */
+	public synchronized boolean hasDependantsOutside(final @NonNull Collection<PaintingTask> component) {
+		for (PaintingTask dependant : this.dependants) {
+			if (!component.contains(dependant)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public synchronized void removeDependant(@NonNull PaintingTask task) {
 		final boolean removed = this.dependants.remove(task);
 		assert removed;
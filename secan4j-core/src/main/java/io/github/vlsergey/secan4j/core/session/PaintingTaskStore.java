@@ -0,0 +1,282 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.unmodifiableCollection;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.session.PaintingTask.Result;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds {@link PaintingTask}s of session by their keys. Keeps estimated size of
+ * stored tasks under the configured budget by evicting completed tasks no other
+ * task depends on. Evicted task will be created and recomputed again if some
+ * task will call it later.
+ * <p>
+ * Tasks those depend on each other (recursive calls) are evicted together,
+ * as a strongly connected component (see {@link StronglyConnectedLevels}), when
+ * no task outside of the component depends on them.
+ */
+@Slf4j
+public class PaintingTaskStore {
+
+	private static final long COLORED_OBJECT_SIZE = 64;
+
+	private static final long DEPENDENCY_SIZE = 48;
+
+	private static final long REFERENCE_SIZE = 8;
+
+	private static final long SEEN_CLASS_SIZE = 40;
+
+	private static final long TASK_SIZE = 256;
+
+	private static long estimateSize(final @Nullable ColoredObject[] colors) {
+		if (colors == null) {
+			return 0;
+		}
+
+		long size = REFERENCE_SIZE * colors.length;
+		for (ColoredObject coloredObject : colors) {
+			if (coloredObject != null) {
+				size += COLORED_OBJECT_SIZE + SEEN_CLASS_SIZE * coloredObject.getSeenClassesHere().size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return rough estimation of memory used by task, its key, result and links
+	 *         to dependencies
+	 */
+	static long estimateSize(final @NonNull PaintingTask task) {
+		long size = TASK_SIZE + estimateSize(task.getParamIns()) + estimateSize(task.getParamOuts())
+				+ DEPENDENCY_SIZE * task.getDependencies().size();
+
+		final Result result = task.getResult();
+		if (result != null) {
+			size += estimateSize(result.getResultIns()) + estimateSize(result.getResultOuts());
+		}
+		return size;
+	}
+
+	private final long budget;
+
+	/**
+	 * Returns tasks of strongly connected component of task
+	 */
+	private final @NonNull Function<PaintingTask, Set<PaintingTask>> componentOf;
+
+	private final @NonNull AtomicLong estimatedSize = new AtomicLong(0);
+
+	private final @NonNull AtomicBoolean evicting = new AtomicBoolean(false);
+
+	/**
+	 * Tasks those had no dependants outside of their components when were checked
+	 * last time
+	 */
+	private final @NonNull Set<PaintingTask> evictionCandidates = newSetFromMap(new ConcurrentHashMap<>());
+
+	private final @NonNull AtomicLong evictionsCount = new AtomicLong(0);
+
+	/**
+	 * Returns <code>true</code> if task is neither queued nor running
+	 */
+	private final @NonNull Predicate<PaintingTask> isIdle;
+
+	/**
+	 * Called after task was evicted, so data kept for task elsewhere can be
+	 * dropped as well
+	 */
+	private final @NonNull Consumer<PaintingTask> onEvicted;
+
+	private final @NonNull Map<PaintingTask.TaskKey, PaintingTask> tasks = new ConcurrentHashMap<>();
+
+	public PaintingTaskStore(final long budget, final @NonNull Predicate<PaintingTask> isIdle,
+			final @NonNull Function<PaintingTask, Set<PaintingTask>> componentOf,
+			final @NonNull Consumer<PaintingTask> onEvicted) {
+		this.budget = budget;
+		this.componentOf = componentOf;
+		this.isIdle = isIdle;
+		this.onEvicted = onEvicted;
+	}
+
+	/**
+	 * Evicts components without outer dependants until estimated size of store is
+	 * below the budget. Tasks those lost their only dependants because of eviction
+	 * are evicted as well.
+	 */
+	public void evictIfNeeded() {
+		if (estimatedSize.get() <= budget || !evicting.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			final Deque<PaintingTask> toCheck = new ArrayDeque<>(evictionCandidates);
+			while (estimatedSize.get() > budget && !toCheck.isEmpty()) {
+				final PaintingTask candidate = toCheck.poll();
+				if (tasks.get(candidate.getArguments()) != candidate || !isReleased(candidate)) {
+					evictionCandidates.remove(candidate);
+					continue;
+				}
+
+				final Set<PaintingTask> component = componentOf.apply(candidate);
+				if (!component.stream().allMatch(member -> isEvictable(member, component))) {
+					// queued, running or pinned -- check next time
+					continue;
+				}
+
+				for (PaintingTask member : component) {
+					if (!tryEvict(member, component)) {
+						// pinned meanwhile, the rest of component will be recomputed if needed
+						continue;
+					}
+					evictionCandidates.remove(member);
+
+					for (PaintingTask dependency : member.getDependencies()) {
+						if (component.contains(dependency)) {
+							continue;
+						}
+						dependency.removeDependant(member);
+						if (!dependency.hasDependantsOutside(componentOf.apply(dependency))) {
+							evictionCandidates.add(dependency);
+							toCheck.add(dependency);
+						}
+					}
+					member.setDependencies(emptySet());
+				}
+			}
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	/**
+	 * Returns existing task or creates new one. Returned task is pinned, i.e. it
+	 * won't be evicted until {@link #unpin(PaintingTask)} is called
+	 */
+	public @NonNull PaintingTask getAndPin(final @NonNull PaintingTask.TaskKey key,
+			final @NonNull Function<PaintingTask.TaskKey, PaintingTask> factory) {
+		final boolean[] created = { false };
+		final PaintingTask result = tasks.compute(key, (k, existing) -> {
+			final PaintingTask task;
+			if (existing != null) {
+				task = existing;
+			} else {
+				task = factory.apply(k);
+				created[0] = true;
+			}
+			task.getPins().incrementAndGet();
+			return task;
+		});
+
+		if (created[0]) {
+			update(result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of tasks evicted since store creation
+	 */
+	public long getEvictionsCount() {
+		return evictionsCount.get();
+	}
+
+	public long getEstimatedSize() {
+		return estimatedSize.get();
+	}
+
+	private boolean isEvictable(final @NonNull PaintingTask task, final @NonNull Set<PaintingTask> component) {
+		return tasks.get(task.getArguments()) == task && task.getPins().get() == 0
+				&& !task.hasDependantsOutside(component) && isIdle.test(task);
+	}
+
+	/**
+	 * @return <code>true</code> if no task outside of component of given task
+	 *         depends on any task of component
+	 */
+	private boolean isReleased(final @NonNull PaintingTask task) {
+		final Set<PaintingTask> component = componentOf.apply(task);
+		return component.stream().noneMatch(member -> member.hasDependantsOutside(component));
+	}
+
+	/**
+	 * Marks task as a candidate for eviction if no task outside of its component
+	 * depends on it. Other tasks of component are checked only on eviction: the
+	 * last of them released by outer dependants is marked anyway.
+	 */
+	public void release(final @NonNull PaintingTask task) {
+		if (!task.hasDependantsOutside(componentOf.apply(task))) {
+			evictionCandidates.add(task);
+		}
+	}
+
+	public int size() {
+		return tasks.size();
+	}
+
+	private boolean tryEvict(final @NonNull PaintingTask candidate, final @NonNull Set<PaintingTask> component) {
+		final boolean[] evicted = { false };
+		tasks.computeIfPresent(candidate.getArguments(), (key, task) -> {
+			if (task != candidate || task.getPins().get() != 0 || task.hasDependantsOutside(component)
+					|| !isIdle.test(task)) {
+				return task;
+			}
+			evicted[0] = true;
+			return null;
+		});
+
+		if (evicted[0]) {
+			log.debug("Evicted {}", candidate);
+			synchronized (candidate) {
+				estimatedSize.addAndGet(-candidate.getAccountedSize());
+				candidate.setAccountedSize(0);
+			}
+			evictionsCount.incrementAndGet();
+			onEvicted.accept(candidate);
+		}
+		return evicted[0];
+	}
+
+	public void unpin(final @NonNull PaintingTask task) {
+		if (task.getPins().decrementAndGet() == 0) {
+			release(task);
+		}
+	}
+
+	/**
+	 * Recalculates estimated size of task after its result or dependencies were
+	 * changed. Does nothing if task is not in store.
+	 */
+	public void update(final @NonNull PaintingTask task) {
+		final long newSize = estimateSize(task);
+		synchronized (task) {
+			if (tasks.get(task.getArguments()) != task) {
+				return;
+			}
+			estimatedSize.addAndGet(newSize - task.getAccountedSize());
+			task.setAccountedSize(newSize);
+		}
+	}
+
+	public @NonNull Collection<PaintingTask> values() {
+		return unmodifiableCollection(tasks.values());
+	}
+
+}
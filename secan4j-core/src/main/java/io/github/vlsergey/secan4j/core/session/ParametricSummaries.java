@@ -0,0 +1,226 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import javax.annotation.Nullable;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.colored.Confidence;
+import io.github.vlsergey.secan4j.core.colored.PaintedColor;
+import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.colored.TraceItems;
+import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
+import io.github.vlsergey.secan4j.core.session.PaintingTask.Result;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.CtMethod;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * Support of parametric (context-insensitive) method summaries, see
+ * {@link PaintingSessionSettings#isParametricSummaries()}.
+ * <p>
+ * Every method is analyzed once without any colors of arguments and results
+ * (base task) and once per each argument or result slot with {@link SlotMarker}
+ * color on it (marker task). Base task gives colors method assigns to its
+ * arguments and results by itself, while marker task shows which slots the value
+ * of marked slot flows to. Colors at call site are instantiated from these
+ * results without analyzing method for every combination of call site colors.
+ * <p>
+ * Slots are numbered as arguments (including <code>this</code>) followed by
+ * results. Only slot-to-slot flows are modeled: value stored into a field is
+ * seen only if it colors a slot (e.g. the object of field annotated as parent
+ * attributes definer), other flows into fields are not part of the summary.
+ */
+final class ParametricSummaries {
+
+	/**
+	 * Color source of marker task. Marker task colors only propagate given colors
+	 * and never report intersections.
+	 */
+	@Data
+	static final class SlotMarker implements TraceItem {
+		private static final long serialVersionUID = 1L;
+
+		private final int slot;
+
+		@Override
+		public TraceItem findPrevious() {
+			return null;
+		}
+
+		@Override
+		public String getMessage() {
+			return "Value of slot #" + slot;
+		}
+
+		@Override
+		public SourceCodePosition getSourceCodePosition() {
+			return null;
+		}
+
+		private Object readResolve() {
+			return TraceItems.intern(this);
+		}
+	}
+
+	@Data
+	static final class SummaryFlowTraceItem implements TraceItem {
+		private static final long serialVersionUID = 1L;
+
+		private final TraceItem previous;
+		private final SourceCodePosition sourceCodePosition;
+		private final String message;
+
+		SummaryFlowTraceItem(final TraceItem previous, final SourceCodePosition sourceCodePosition,
+				final String message) {
+			this.previous = TraceItems.intern(previous);
+			this.sourceCodePosition = sourceCodePosition;
+			this.message = message;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof SummaryFlowTraceItem)) {
+				return false;
+			}
+			final SummaryFlowTraceItem other = (SummaryFlowTraceItem) obj;
+			return previous == other.previous && Objects.equals(sourceCodePosition, other.sourceCodePosition)
+					&& Objects.equals(message, other.message);
+		}
+
+		@Override
+		public TraceItem findPrevious() {
+			return previous;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(previous), sourceCodePosition, message);
+		}
+
+		private Object readResolve() {
+			return TraceItems.intern(this);
+		}
+	}
+
+	private static @Nullable ColoredObject getSlot(final @Nullable ColoredObject[] ins,
+			final @Nullable ColoredObject[] outs, final int insLength, final int slot) {
+		final ColoredObject[] colors = slot < insLength ? ins : outs;
+		final int index = slot < insLength ? slot : slot - insLength;
+		return colors == null || index >= colors.length ? null : colors[index];
+	}
+
+	@SneakyThrows
+	private static @NonNull CtClass getSlotType(final @NonNull CtBehavior method, final int insLength,
+			final int slot) {
+		final CtClass[] parameterTypes = method.getParameterTypes();
+		if (slot >= insLength) {
+			return method instanceof CtMethod ? ((CtMethod) method).getReturnType()
+					: method.getDeclaringClass().getClassPool().get(Object.class.getName());
+		}
+		final int thisShift = insLength - parameterTypes.length;
+		return slot < thisShift ? method.getDeclaringClass() : parameterTypes[slot - thisShift];
+	}
+
+	private static @NonNull String getSlotName(final int insLength, final int slot) {
+		return slot < insLength ? "arg" + slot : "result";
+	}
+
+	/**
+	 * Calculates colors of call site slots using method summary.
+	 *
+	 * @param base          result of base task or <code>null</code> if only flows
+	 *                      of given colors are needed (or base task is not
+	 *                      calculated yet)
+	 * @param markerResults returns result of marker task for slot (or
+	 *                      <code>null</code> if not calculated yet). Called only
+	 *                      for slots with colors.
+	 * @param onSlotColor   receives colors of slots, may be called several times
+	 *                      for the same slot
+	 */
+	static void instantiate(final @NonNull CtBehavior method, final @NonNull ColoredObject[] ins,
+			final @NonNull ColoredObject[] outs, final @Nullable Result base,
+			final @NonNull IntFunction<Result> markerResults, final @Nullable SourceCodePosition callPosition,
+			final @NonNull BiConsumer<Integer, ColoredObject> onSlotColor) {
+		final int slots = ins.length + outs.length;
+
+		if (base != null) {
+			for (int slot = 0; slot < slots; slot++) {
+				final ColoredObject baseColor = getSlot(base.getResultIns(), base.getResultOuts(), ins.length, slot);
+				if (baseColor != null) {
+					onSlotColor.accept(slot, baseColor);
+				}
+			}
+		}
+
+		for (int sourceSlot = 0; sourceSlot < slots; sourceSlot++) {
+			final ColoredObject actual = getSlot(ins, outs, ins.length, sourceSlot);
+			if (actual == null) {
+				continue;
+			}
+			final Result flows = markerResults.apply(sourceSlot);
+			if (flows == null) {
+				continue;
+			}
+
+			for (int targetSlot = 0; targetSlot < slots; targetSlot++) {
+				final ColoredObject flowed = getSlot(flows.getResultIns(), flows.getResultOuts(), ins.length,
+						targetSlot);
+				if (targetSlot == sourceSlot || flowed == null) {
+					continue;
+				}
+
+				final String message = "Flows from " + getSlotName(ins.length, sourceSlot) + " to "
+						+ getSlotName(ins.length, targetSlot) + " of method "
+						+ method.getDeclaringClass().getName() + "." + method.getName() + "(…)";
+				onSlotColor.accept(targetSlot,
+						actual.withNewTraceItem(src -> new SummaryFlowTraceItem(src, callPosition, message))
+								.withSeenClassesHere(flowed.getSeenClassesHere()));
+			}
+		}
+	}
+
+	static boolean isMarkerTask(final @NonNull PaintingTask.TaskKey key) {
+		return hasMarker(key.getParamIns()) || hasMarker(key.getParamOuts());
+	}
+
+	private static boolean hasMarker(final @Nullable ColoredObject[] colors) {
+		if (colors == null) {
+			return false;
+		}
+		for (ColoredObject color : colors) {
+			if (color != null && color.getColor().getSrc() instanceof SlotMarker) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static @NonNull PaintingTask.TaskKey newMarkerTaskKey(final @NonNull CtBehavior method, final int insLength,
+			final int outsLength, final int slot) {
+		final ColoredObject[] ins = new ColoredObject[insLength];
+		final ColoredObject[] outs = new ColoredObject[outsLength];
+
+		final ColoredObject marker = ColoredObject.forRootOnly(getSlotType(method, insLength, slot),
+				PaintedColor.of(Confidence.ASSUMED, new SlotMarker(slot), ColorType.SourceData));
+		if (slot < insLength) {
+			ins[slot] = marker;
+		} else {
+			outs[slot - insLength] = marker;
+		}
+		return new PaintingTask.TaskKey(method, ins, outs);
+	}
+
+	private ParametricSummaries() {
+	}
+
+}
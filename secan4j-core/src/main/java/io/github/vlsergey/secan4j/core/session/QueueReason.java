@@ -4,6 +4,8 @@ public enum QueueReason {
 
 	ANALYZE_REQUEST,
 
+	CONFIGURATION_UPDATE,
+
 	DEPENDANT_REQUEST,
 
 	DEPENDENCY_UPDATE,
@@ -0,0 +1,176 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static java.util.Collections.newSetFromMap;
+import static java.util.stream.Collectors.toMap;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import lombok.NonNull;
+
+/**
+ * Counters and gauges of {@link PaintingSession}. Available as MXBean (see
+ * {@link #registerMBean()}) during analysis and as text summary (see
+ * {@link #toString()}) after it.
+ */
+public class SessionMetrics implements SessionMetricsMXBean {
+
+	private static final int MOST_EXECUTED_METHODS_LIMIT = 10;
+
+	/**
+	 * Names of classes methods of which were executed. Javassist does not expose
+	 * size of {@link javassist.ClassPool}, but this is the part of it analysis
+	 * keeps in memory.
+	 */
+	private final @NonNull Set<String> analyzedClasses = newSetFromMap(new ConcurrentHashMap<>());
+
+	private final @NonNull Map<QueueReason, LongAdder> executionsByReason = new EnumMap<>(QueueReason.class);
+
+	private final @NonNull Map<String, LongAdder> executionsByMethod = new ConcurrentHashMap<>();
+
+	private final @NonNull PaintingSession session;
+
+	private final @NonNull LongAdder tasksCreated = new LongAdder();
+
+	SessionMetrics(final @NonNull PaintingSession session) {
+		this.session = session;
+		for (QueueReason reason : QueueReason.values()) {
+			executionsByReason.put(reason, new LongAdder());
+		}
+	}
+
+	@Override
+	public int getAnalyzedClasses() {
+		return analyzedClasses.size();
+	}
+
+	@Override
+	public double getClassDataCacheHitRate() {
+		return session.getDataProvider().getClassDataCacheStats().hitRate();
+	}
+
+	@Override
+	public long getColoringRounds() {
+		return session.getGraphColorer().getColoringRounds();
+	}
+
+	@Override
+	public long getGraphBuildTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(session.getGraphColorer().getGraphBuildNanos());
+	}
+
+	@Override
+	public long getGraphsBuilt() {
+		return session.getGraphColorer().getGraphsBuilt();
+	}
+
+	@Override
+	public double getMethodGraphsCacheHitRate() {
+		return session.getGraphColorer().getMethodGraphsCacheStats().hitRate();
+	}
+
+	@Override
+	public Map<String, Long> getExecutedByReason() {
+		final Map<String, Long> result = new LinkedHashMap<>();
+		executionsByReason.forEach((reason, count) -> result.put(reason.name(), count.sum()));
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getMostExecutedMethods() {
+		return executionsByMethod.entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().sum()))
+				.entrySet().stream().sorted(Entry.<String, Long>comparingByValue().reversed())
+				.limit(MOST_EXECUTED_METHODS_LIMIT)
+				.collect(toMap(Entry::getKey, Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return session.getQueueDepth();
+	}
+
+	@Override
+	public long getTaskReruns() {
+		return session.getExecutorService().getRerunsCount();
+	}
+
+	@Override
+	public long getTasksCreated() {
+		return tasksCreated.sum();
+	}
+
+	@Override
+	public long getTasksEstimatedSize() {
+		return session.getTaskStore().getEstimatedSize();
+	}
+
+	@Override
+	public long getTasksEvicted() {
+		return session.getTaskStore().getEvictionsCount();
+	}
+
+	@Override
+	public long getTasksExecuted() {
+		return session.getExecutorService().getExecutionsCount();
+	}
+
+	@Override
+	public int getTasksInStore() {
+		return session.getTaskStore().size();
+	}
+
+	void onExecuted(final @NonNull String className, final @NonNull String methodId,
+			final @NonNull QueueReason reason) {
+		analyzedClasses.add(className);
+		executionsByMethod.computeIfAbsent(methodId, k -> new LongAdder()).increment();
+		executionsByReason.get(reason).increment();
+	}
+
+	void onTaskCreated() {
+		tasksCreated.increment();
+	}
+
+	/**
+	 * Registers metrics in platform MBean server under unique name
+	 *
+	 * @return name to unregister metrics with
+	 */
+	public @NonNull ObjectName registerMBean() throws JMException {
+		final ObjectName name = new ObjectName("io.github.vlsergey.secan4j:type=PaintingSession,id="
+				+ Integer.toHexString(System.identityHashCode(session)));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("Analysis summary:\n");
+		builder.append("* tasks created / executed / reruns: ").append(getTasksCreated()).append(" / ")
+				.append(getTasksExecuted()).append(" / ").append(getTaskReruns()).append('\n');
+		builder.append("* tasks executed by queue reason: ").append(getExecutedByReason()).append('\n');
+		builder.append("* tasks in store / evicted / estimated size: ").append(getTasksInStore()).append(" / ")
+				.append(getTasksEvicted()).append(" / ").append(getTasksEstimatedSize()).append('\n');
+		builder.append("* colorless graphs built / build time (ms) / cache hit rate: ").append(getGraphsBuilt())
+				.append(" / ").append(getGraphBuildTimeMillis()).append(" / ")
+				.append(String.format("%.3f", getMethodGraphsCacheHitRate())).append('\n');
+		builder.append("* analyzed classes: ").append(getAnalyzedClasses()).append('\n');
+		builder.append("* coloring rounds: ").append(getColoringRounds()).append('\n');
+		builder.append("* configuration cache hit rate: ").append(String.format("%.3f", getClassDataCacheHitRate()))
+				.append('\n');
+		builder.append("* most executed methods:");
+		getMostExecutedMethods().forEach(
+				(methodId, count) -> builder.append("\n  * ").append(methodId).append(": ").append(count));
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,49 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link SessionMetrics}
+ */
+public interface SessionMetricsMXBean {
+
+	int getAnalyzedClasses();
+
+	double getClassDataCacheHitRate();
+
+	long getColoringRounds();
+
+	long getGraphBuildTimeMillis();
+
+	long getGraphsBuilt();
+
+	double getMethodGraphsCacheHitRate();
+
+	/**
+	 * @return methods executed most times (with different contexts or again and
+	 *         again because of dependency updates) and number of their executions
+	 */
+	Map<String, Long> getMostExecutedMethods();
+
+	/**
+	 * @return number of task executions for each {@link QueueReason} task was
+	 *         queued with last time before execution. Requests deduplicated by
+	 *         executor are not counted.
+	 */
+	Map<String, Long> getExecutedByReason();
+
+	int getQueueDepth();
+
+	long getTaskReruns();
+
+	long getTasksCreated();
+
+	long getTasksEstimatedSize();
+
+	long getTasksEvicted();
+
+	long getTasksExecuted();
+
+	int getTasksInStore();
+
+}
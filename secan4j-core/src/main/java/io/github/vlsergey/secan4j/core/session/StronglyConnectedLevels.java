@@ -0,0 +1,161 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Assigns levels to tasks using strongly connected components (SCC) of
+ * dependency graph. All tasks of the same component (mutually recursive calls)
+ * share the same level, and the level of component is greater than the levels
+ * of all components it depends on. Executing tasks with lower levels first
+ * makes each component reach its fixpoint before its dependants are
+ * re-executed.
+ * <p>
+ * Components are used to evict mutually recursive tasks from
+ * {@link PaintingTaskStore} together.
+ * <p>
+ * Levels are calculated lazily and invalidated (together with levels of all
+ * transitive dependants) when dependencies of task are changed.
+ */
+class StronglyConnectedLevels {
+
+	@AllArgsConstructor
+	private static class Frame {
+		private final @NonNull PaintingTask task;
+		private final @NonNull Iterator<PaintingTask> dependencies;
+	}
+
+	/**
+	 * Iterative version of Tarjan's algorithm. Tasks with already calculated
+	 * levels are not traversed: they can't depend on tasks without levels, since
+	 * invalidation is propagated to all dependants.
+	 */
+	private static void calculate(final @NonNull PaintingTask root) {
+		final Map<PaintingTask, Integer> indexes = new HashMap<>();
+		final Map<PaintingTask, Integer> lowLinks = new HashMap<>();
+		final Deque<PaintingTask> stack = new ArrayDeque<>();
+		final Set<PaintingTask> onStack = new HashSet<>();
+		final Deque<Frame> callStack = new ArrayDeque<>();
+
+		indexes.put(root, 0);
+		lowLinks.put(root, 0);
+		stack.push(root);
+		onStack.add(root);
+		callStack.push(new Frame(root, root.getDependencies().iterator()));
+
+		while (!callStack.isEmpty()) {
+			final Frame frame = callStack.peek();
+
+			if (frame.dependencies.hasNext()) {
+				final PaintingTask dependency = frame.dependencies.next();
+				if (dependency.getLevel() != -1) {
+					continue;
+				}
+
+				if (!indexes.containsKey(dependency)) {
+					final int index = indexes.size();
+					indexes.put(dependency, index);
+					lowLinks.put(dependency, index);
+					stack.push(dependency);
+					onStack.add(dependency);
+					callStack.push(new Frame(dependency, dependency.getDependencies().iterator()));
+				} else if (onStack.contains(dependency)) {
+					lowLinks.put(frame.task, Math.min(lowLinks.get(frame.task), indexes.get(dependency)));
+				}
+				continue;
+			}
+
+			callStack.pop();
+			final Frame parent = callStack.peek();
+			if (parent != null) {
+				lowLinks.put(parent.task, Math.min(lowLinks.get(parent.task), lowLinks.get(frame.task)));
+			}
+
+			if (!lowLinks.get(frame.task).equals(indexes.get(frame.task))) {
+				continue;
+			}
+
+			// frame.task is the root of component: pop it and assign level
+			final List<PaintingTask> component = new ArrayList<>();
+			PaintingTask member;
+			do {
+				member = stack.pop();
+				onStack.remove(member);
+				component.add(member);
+			} while (member != frame.task);
+
+			int level = 0;
+			for (PaintingTask componentTask : component) {
+				for (PaintingTask dependency : componentTask.getDependencies()) {
+					if (dependency.getLevel() != -1) {
+						level = Math.max(level, dependency.getLevel() + 1);
+					}
+				}
+			}
+			final Set<PaintingTask> componentSet = component.size() == 1 ? singleton(frame.task)
+					: unmodifiableSet(new HashSet<>(component));
+			for (PaintingTask componentTask : component) {
+				componentTask.setLevel(level);
+				componentTask.setComponent(componentSet);
+			}
+		}
+	}
+
+	/**
+	 * @return tasks of strongly connected component of task (including task
+	 *         itself), calculating it if needed
+	 */
+	synchronized @NonNull Set<PaintingTask> getComponent(final @NonNull PaintingTask task) {
+		if (task.getLevel() == -1) {
+			calculate(task);
+		}
+		return task.getComponent();
+	}
+
+	/**
+	 * @return level of task, calculating it if needed
+	 */
+	synchronized int getLevel(final @NonNull PaintingTask task) {
+		if (task.getLevel() == -1) {
+			calculate(task);
+		}
+		return task.getLevel();
+	}
+
+	/**
+	 * Invalidates level of task (and all its transitive dependants), shall be
+	 * called after dependencies of task were changed.
+	 *
+	 * @return tasks those levels were invalidated
+	 */
+	synchronized @NonNull List<PaintingTask> invalidate(final @NonNull PaintingTask task) {
+		final List<PaintingTask> invalidated = new ArrayList<>();
+		final Deque<PaintingTask> toInvalidate = new ArrayDeque<>();
+		toInvalidate.add(task);
+		while (!toInvalidate.isEmpty()) {
+			final PaintingTask current = toInvalidate.poll();
+			if (current.getLevel() == -1) {
+				continue;
+			}
+			current.setLevel(-1);
+			current.setComponent(null);
+			invalidated.add(current);
+			toInvalidate.addAll(current.getDependants());
+		}
+		return invalidated;
+	}
+
+}
@@ -0,0 +1,32 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of single {@link PaintingSession#executeTask(PaintingTask)}
+ * invocation
+ */
+@Category("secan4j")
+@Description("Coloring of method with single context")
+@Label("Task Execution")
+@Name("io.github.vlsergey.secan4j.TaskExecution")
+class TaskExecutionEvent extends Event {
+
+	@Label("Dependencies")
+	int dependencies;
+
+	@Label("Method")
+	String method;
+
+	@Description("Reason task was queued last time before execution")
+	@Label("Queue Reason")
+	String queueReason;
+
+	@Label("Result Changed")
+	boolean resultChanged;
+
+}
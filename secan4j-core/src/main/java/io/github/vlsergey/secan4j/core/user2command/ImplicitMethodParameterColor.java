@@ -4,6 +4,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.colored.TraceItems;
 import io.github.vlsergey.secan4j.core.colorless.SourceCodePosition;
 import javassist.CtBehavior;
 import javassist.CtClass;
@@ -12,6 +13,8 @@ import lombok.Data;
 @Data
 final class ImplicitMethodParameterColor implements TraceItem {
 
+	private static final long serialVersionUID = 1L;
+
 	private final String className;
 	private final String methodName;
 	private final String methodSignature;
@@ -54,6 +57,10 @@ final class ImplicitMethodParameterColor implements TraceItem {
 				+ className;
 	}
 
+	private Object readResolve() {
+		return TraceItems.intern(this);
+	}
+
 	@Override
 	public String toString() {
 		return "MethodParameterTraceItem [" + getMessage() + "]";
@@ -0,0 +1,47 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.colorless.BlockDataGraph;
+import io.github.vlsergey.secan4j.core.colorless.ColorlessMethodGraphBuilder;
+import io.github.vlsergey.secan4j.core.colorless.DataNode;
+import javassist.ClassPool;
+import javassist.CtClass;
+
+class ArrayColorStoreTest {
+
+	private final ClassPool classPool = ClassPool.getDefault();
+
+	@Test
+	void testCopyIsIndependent() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final BlockDataGraph graph = new ColorlessMethodGraphBuilder(classPool, ctClass,
+				ctClass.getDeclaredMethod("append")).buildGraph().get();
+		final DataNode[] allNodes = graph.getAllNodes();
+
+		final ColoredObject color = ColoredObject.of(
+				PaintedColor.of(Confidence.EXPLICITLY, null, ColorType.SourceData),
+				SeenClasses.of(String.class.getName()));
+		final ArrayColorStore original = new ArrayColorStore(allNodes);
+		original.put(allNodes[0], color);
+
+		final ArrayColorStore copy = new ArrayColorStore(original);
+		final Map<DataNode, ColoredObject> changed = new HashMap<>();
+		copy.forEachChanged(changed::put);
+		assertEquals(Map.of(allNodes[0], color), changed);
+
+		copy.clear();
+		assertTrue(copy.isEmpty());
+		assertNull(copy.get(allNodes[0]));
+		assertSame(color, original.get(allNodes[0]));
+	}
+
+}
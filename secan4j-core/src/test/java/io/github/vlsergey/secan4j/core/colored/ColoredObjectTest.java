@@ -0,0 +1,85 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.session.TestTraceItem;
+
+class ColoredObjectTest {
+
+	@Test
+	void testDeserializedIsCanonical() throws Exception {
+		final ColoredObject original = ColoredObject.of(PaintedColor.of(Confidence.EXPLICITLY, null,
+				ColorType.SourceData), SeenClasses.of("java.lang.String"));
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(original);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+			assertSame(original, ois.readObject());
+		}
+	}
+
+	@Test
+	void testEqualAreSame() {
+		final PaintedColor color = PaintedColor.of(Confidence.EXPLICITLY, null, ColorType.SinkData);
+		assertSame(color, PaintedColor.of(Confidence.EXPLICITLY, null, ColorType.SinkData));
+		assertNotSame(color, PaintedColor.of(Confidence.ASSUMED, null, ColorType.SinkData));
+
+		final SeenClasses seenClasses = SeenClasses.of("java.lang.Object", "java.lang.String");
+		final ColoredObject coloredObject = ColoredObject.of(color, seenClasses);
+		assertSame(coloredObject, ColoredObject.of(PaintedColor.of(Confidence.EXPLICITLY, null, ColorType.SinkData),
+				SeenClasses.of("java.lang.String", "java.lang.Object")));
+		assertSame(coloredObject, coloredObject.withSeenClassesHere(seenClasses));
+	}
+
+	@Test
+	void testWithoutTrace() {
+		final SeenClasses seenClasses = SeenClasses.of("java.lang.String");
+		final ColoredObject first = ColoredObject.of(PaintedColor.of(Confidence.EXPLICITLY, null,
+				ColorType.SourceData), seenClasses);
+		final ColoredObject second = ColoredObject.of(PaintedColor.of(Confidence.EXPLICITLY,
+				TestTraceItem.INSTANCE, ColorType.SourceData), seenClasses);
+
+		assertNotSame(first, second);
+		assertSame(first.withoutTrace(), second.withoutTrace());
+		assertSame(OmittedTraceItem.INSTANCE, second.withoutTrace().getColor().getSrc());
+		assertSame(second.withoutTrace(), second.withoutTrace().withoutTrace());
+	}
+
+	@Test
+	void testSeenClassesUnion() throws Exception {
+		final SeenClasses objectAndString = SeenClasses.of("java.lang.Object", "java.lang.String");
+		final SeenClasses string = SeenClasses.of("java.lang.String");
+
+		assertSame(string, SeenClasses.of("java.lang.String"));
+		assertSame(objectAndString, objectAndString.union(string));
+		assertSame(objectAndString, string.union(objectAndString));
+		assertSame(string, string.union(SeenClasses.EMPTY));
+
+		final SeenClasses union = objectAndString.union(SeenClasses.of("java.lang.Integer"));
+		assertEquals(3, union.size());
+		assertTrue(union.contains("java.lang.Integer"));
+		assertTrue(union.contains("java.lang.String"));
+		assertEquals(union, SeenClasses.of("java.lang.Integer", "java.lang.String", "java.lang.Object"));
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(union);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+			assertEquals(union, ois.readObject());
+		}
+	}
+
+}
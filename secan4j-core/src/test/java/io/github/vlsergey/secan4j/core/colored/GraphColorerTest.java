@@ -1,5 +1,6 @@
 package io.github.vlsergey.secan4j.core.colored;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -8,10 +9,12 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
 import io.github.vlsergey.secan4j.core.colored.brushes.CopierBrush;
+import io.github.vlsergey.secan4j.core.colored.brushes.InvocationsImplicitColorer;
 import io.github.vlsergey.secan4j.core.colored.brushes.MethodParameterImplicitColorer;
 import io.github.vlsergey.secan4j.core.user2command.UserToCommandInjectionColorer;
 import io.github.vlsergey.secan4j.data.DataProvider;
@@ -49,4 +52,30 @@ public class GraphColorerTest {
 		assertEquals(ColorType.SourceData, result.get()[0][2].getColor().getType());
 	}
 
+	@Test
+	void testInitialIntersectionsAreReportedOnEveryColoring() throws Exception {
+		final GraphColorer graphColorer = new GraphColorer(
+				Arrays.asList(new InvocationsImplicitColorer(classPool, userToCommand),
+						new MethodParameterImplicitColorer(userToCommand)),
+				emptyList());
+
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtMethod ctMethod = ctClass.getDeclaredMethod("prepareStatement");
+
+		// graph is built by first call only, then cached, then rebuilt
+		final AtomicInteger intersections = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			if (i == 2) {
+				graphColorer.invalidateMethodGraph(ctClass.getName(), ctMethod.getName(), ctMethod.getSignature());
+			}
+			intersections.set(0);
+			graphColorer.color(ctClass, ctMethod, null, null, (source, sink) -> intersections.incrementAndGet());
+			assertEquals(1, intersections.get());
+		}
+		assertEquals(2, graphColorer.getGraphsBuilt());
+
+		// flows coloring does not use initial colors
+		assertTrue(graphColorer.colorFlows(ctClass, ctMethod, null, null).isPresent());
+	}
+
 }
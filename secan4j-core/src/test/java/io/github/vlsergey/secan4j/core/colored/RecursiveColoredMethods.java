@@ -0,0 +1,56 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+import io.github.vlsergey.secan4j.annotations.UserProvided;
+
+public class RecursiveColoredMethods {
+
+	public void entry(@UserProvided String src, StringBuilder dst, int depth) {
+		viaFirst(src, dst, depth);
+		viaSecond(src, dst, depth);
+		viaThird(src, dst, depth);
+		viaFourth(src, dst, depth);
+	}
+
+	private void first(String src, StringBuilder dst, int depth) {
+		if (depth > 0) {
+			second(src, dst, depth - 1);
+		}
+	}
+
+	private void fourth(String src, StringBuilder dst, int depth) {
+		if (depth > 0) {
+			first(src, dst, depth - 1);
+		} else {
+			dst.append(src);
+		}
+	}
+
+	private void second(String src, StringBuilder dst, int depth) {
+		if (depth > 0) {
+			third(src, dst, depth - 1);
+		}
+	}
+
+	private void third(String src, StringBuilder dst, int depth) {
+		if (depth > 0) {
+			fourth(src, dst, depth - 1);
+		}
+	}
+
+	private void viaFirst(String src, StringBuilder dst, int depth) {
+		first(src, dst, depth);
+	}
+
+	private void viaFourth(String src, StringBuilder dst, int depth) {
+		fourth(src, dst, depth);
+	}
+
+	private void viaSecond(String src, StringBuilder dst, int depth) {
+		second(src, dst, depth);
+	}
+
+	private void viaThird(String src, StringBuilder dst, int depth) {
+		third(src, dst, depth);
+	}
+
+}
@@ -13,6 +13,24 @@ public class SimpleColoredMethods {
 		dst.append(src);
 	}
 
+	public void appendRecursively(@UserProvided String src, StringBuilder dst, int depth) {
+		if (depth > 0) {
+			appendTwice(src, dst, depth - 1);
+		} else {
+			dst.append(src);
+		}
+	}
+
+	private void appendTwice(String src, StringBuilder dst, int depth) {
+		appendRecursively(src, dst, depth);
+		appendRecursively(src, dst, depth);
+	}
+
+	public void appendValidated(@UserProvided String src, StringBuilder dst) {
+		Validators.validate(src);
+		dst.append(src);
+	}
+
 	public void arraycopy(@UserProvided byte[] src, byte[] dst) {
 		System.arraycopy(src, 0, dst, 0, src.length);
 	}
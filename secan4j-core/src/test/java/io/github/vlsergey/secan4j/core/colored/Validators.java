@@ -0,0 +1,8 @@
+package io.github.vlsergey.secan4j.core.colored;
+
+public class Validators {
+
+	public static void validate(String value) {
+	}
+
+}
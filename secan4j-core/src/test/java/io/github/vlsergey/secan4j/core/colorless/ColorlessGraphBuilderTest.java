@@ -3,6 +3,8 @@ package io.github.vlsergey.secan4j.core.colorless;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 
 import javassist.ClassPool;
@@ -50,4 +52,37 @@ class ColorlessGraphBuilderTest {
 		assertEquals(6, allNodes.length);
 	}
 
+	@Test
+	void testWhileWithRandom() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleMethods.class.getName());
+		final CtMethod ctMethod = ctClass.getDeclaredMethod("whileWithRandom");
+
+		final BlockDataGraph graph = new ColorlessMethodGraphBuilder(classPool, ctClass, ctMethod).buildGraph().orElse(null);
+
+		assertEquals(1, graph.getMethodReturnNodes().length);
+		final DataNode result = graph.getMethodReturnNodes()[0];
+		assertTrue(result instanceof PhiNode);
+		assertEquals(Type.get(classPool.get(String.class.getName())), result.type);
+
+		// initial value and value from the loop body (back edge)
+		assertEquals(2, result.inputs.length);
+		assertEquals(1, Arrays.stream(graph.getAllNodes()).filter(PhiNode.class::isInstance).count());
+	}
+
+	@Test
+	void testWhileWithRandomToString() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleMethods.class.getName());
+		final CtMethod ctMethod = ctClass.getDeclaredMethod("whileWithRandom");
+
+		final BlockDataGraph graph = new ColorlessMethodGraphBuilder(classPool, ctClass, ctMethod).buildGraph().orElse(null);
+
+		// back edge makes phi node an indirect input of itself
+		final DataNode result = graph.getMethodReturnNodes()[0];
+		assertTrue(result.toString().contains("description=" + result.getDescription()));
+		final String graphString = graph.toString();
+		for (DataNode node : graph.getAllNodes()) {
+			assertTrue(graphString.contains(node.toString()));
+		}
+	}
+
 }
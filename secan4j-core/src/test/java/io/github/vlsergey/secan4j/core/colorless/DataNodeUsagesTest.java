@@ -0,0 +1,67 @@
+package io.github.vlsergey.secan4j.core.colorless;
+
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+
+class DataNodeUsagesTest {
+
+	private final ClassPool classPool = ClassPool.getDefault();
+
+	@Test
+	void testAffectedByMethodParameter() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleMethods.class.getName());
+		final CtMethod ctMethod = ctClass.getDeclaredMethod("xOrNull");
+
+		final BlockDataGraph graph = new ColorlessMethodGraphBuilder(classPool, ctClass, ctMethod).buildGraph().get();
+		final DataNode param = graph.getMethodParamNodes()[0];
+
+		final BlockDataGraph affected = new DataNodeUsages(graph).getAffectedSubgraph(singleton(param));
+
+		assertEquals(1, affected.getInvokations().length);
+		assertEquals("toString", affected.getInvokations()[0].getMethodName());
+		assertTrue(Arrays.asList(affected.getAllNodes()).contains(param));
+		assertTrue(affected.getAllNodes().length < graph.getAllNodes().length);
+	}
+
+	@Test
+	void testAffectedByIndex() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleMethods.class.getName());
+		final CtMethod ctMethod = ctClass.getDeclaredMethod("xOrNull");
+
+		final BlockDataGraph graph = new ColorlessMethodGraphBuilder(classPool, ctClass, ctMethod).buildGraph().get();
+		final DataNode param = graph.getMethodParamNodes()[0];
+		assertSame(param, graph.getAllNodes()[param.getIndex()]);
+
+		final BitSet changed = new BitSet();
+		changed.set(param.getIndex());
+		final DataNodeUsages usages = new DataNodeUsages(graph);
+
+		assertArrayEquals(usages.getAffectedSubgraph(singleton(param)).getAllNodes(),
+				usages.getAffectedSubgraph(changed).getAllNodes());
+	}
+
+	@Test
+	void testNothingAffectedByNothing() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleMethods.class.getName());
+		final CtMethod ctMethod = ctClass.getDeclaredMethod("sumThree");
+
+		final BlockDataGraph graph = new ColorlessMethodGraphBuilder(classPool, ctClass, ctMethod).buildGraph().get();
+		final BlockDataGraph affected = new DataNodeUsages(graph).getAffectedSubgraph(Arrays.asList());
+
+		assertEquals(0, affected.getAllNodes().length);
+		assertEquals(0, affected.getInvokations().length);
+	}
+
+}
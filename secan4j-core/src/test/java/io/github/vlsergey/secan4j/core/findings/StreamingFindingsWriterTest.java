@@ -0,0 +1,56 @@
+package io.github.vlsergey.secan4j.core.findings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.vlsergey.secan4j.core.session.PaintingSession;
+import io.github.vlsergey.secan4j.core.session.TestTraceItem;
+import io.github.vlsergey.secan4j.core.springwebmvc.BadControllerExample;
+import javassist.ClassPool;
+import javassist.CtClass;
+
+class StreamingFindingsWriterTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testDuplicatesAreWrittenOnce() throws Exception {
+		final Path file = directory.resolve("findings.jsonl");
+		try (StreamingFindingsWriter writer = new StreamingFindingsWriter(file, FindingsFormat.JSONL)) {
+			writer.accept(TestTraceItem.INSTANCE, TestTraceItem.INSTANCE);
+			writer.accept(TestTraceItem.INSTANCE, TestTraceItem.INSTANCE);
+			assertEquals(1, writer.getFindingsCount());
+		}
+
+		final List<String> lines = Files.readAllLines(file);
+		assertEquals(1, lines.size());
+		assertEquals("test", new ObjectMapper().readTree(lines.get(0)).get("sink").get("message").asText());
+	}
+
+	@Test
+	void testSarifOfSqlInjection() throws Exception {
+		final ClassPool classPool = ClassPool.getDefault();
+		final CtClass ctClass = classPool.get(BadControllerExample.class.getName());
+
+		final Path file = directory.resolve("findings.sarif");
+		try (StreamingFindingsWriter writer = new StreamingFindingsWriter(file, FindingsFormat.SARIF)) {
+			new PaintingSession(classPool, writer).analyze(ctClass.getDeclaredMethod("sqlInjection"));
+			assertEquals(1, writer.getFindingsCount());
+		}
+
+		final JsonNode results = new ObjectMapper().readTree(file.toFile()).get("runs").get(0).get("results");
+		assertEquals(1, results.size());
+		assertEquals("source-sink", results.get(0).get("ruleId").asText());
+	}
+
+}
@@ -1,10 +1,26 @@
 package io.github.vlsergey.secan4j.core.session;
 
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.colored.OmittedTraceItem;
 import io.github.vlsergey.secan4j.core.springwebmvc.BadControllerExample;
+import javassist.CtBehavior;
+import javassist.CtClass;
 
 class BadControllerExampleTest extends BasePaintingSessionTest {
 
@@ -14,4 +30,57 @@ class BadControllerExampleTest extends BasePaintingSessionTest {
 		assertEquals(1, getIntesectionsCollector().getTraces().size());
 	}
 
+	@Test
+	void testSqlInjectionInParallel() throws Exception {
+		settings.setParallelism(4);
+		analyze(BadControllerExample.class, "sqlInjection");
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+	}
+
+	@Test
+	void testSqlInjectionAsBatch() throws Exception {
+		final CtClass ctClass = classPool.get(BadControllerExample.class.getName());
+		final List<CtBehavior> entryPoints = Arrays.asList(ctClass.getDeclaredMethod("sqlInjection"),
+				ctClass.getConstructors()[0]);
+
+		final Map<CtBehavior, ColoredObject[][]> results = new PaintingSession(classPool,
+				getIntesectionsCollector(), settings).analyze(entryPoints);
+
+		assertEquals(entryPoints, Arrays.asList(results.keySet().toArray()));
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+	}
+
+	@Test
+	void testSqlInjectionTraceFree() throws Exception {
+		final ColorType[][] traced = analyze(BadControllerExample.class, "sqlInjection");
+		getIntesectionsCollector().clear();
+
+		settings.setTraceFree(true);
+		assertArrayEquals(traced, analyze(BadControllerExample.class, "sqlInjection"));
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+		getIntesectionsCollector().getTraces().values()
+				.forEach(trace -> assertFalse(trace.contains(OmittedTraceItem.INSTANCE)));
+	}
+
+	@Test
+	void testSqlInjectionAfterConfigurationReload(final @TempDir Path configurationDirectory) throws Exception {
+		final Path javaSql = configurationDirectory.resolve("java.sql.yaml");
+		Files.writeString(javaSql, "ResultSet: UserProvided\n");
+		settings.setConfigurationSources(singletonList(configurationDirectory));
+
+		final PaintingSession session = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final CtBehavior entryPoint = classPool.get(BadControllerExample.class.getName())
+				.getDeclaredMethod("sqlInjectionViaQuery");
+		session.analyze(entryPoint);
+		assertEquals(0, getIntesectionsCollector().getTraces().size());
+
+		Files.writeString(javaSql, "Connection:\n  prepareStatement:\n    arguments:\n    - Command\n");
+		session.getDataProvider().reload();
+
+		session.analyze(entryPoint);
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+		// callee looked configuration of Connection up
+		assertTrue(session.getMetrics().getExecutedByReason().get(QueueReason.CONFIGURATION_UPDATE.name()) > 0);
+	}
+
 }
@@ -66,7 +66,7 @@ class BasePaintingSessionTest {
 		for (int i = 0; i < colors.length; i++) {
 			inObjects[i] = colors[i] == null ? null
 					: ColoredObject.forRootOnly(classes[i],
-							new PaintedColor(Confidence.EXPLICITLY, TestTraceItem.INSTANCE, colors[i]));
+							PaintedColor.of(Confidence.EXPLICITLY, TestTraceItem.INSTANCE, colors[i]));
 		}
 		return inObjects;
 	}
@@ -84,6 +84,8 @@ class BasePaintingSessionTest {
 	@Getter
 	private final IntesectionsCollector intesectionsCollector = new IntesectionsCollector();
 
+	protected final PaintingSessionSettings settings = new PaintingSessionSettings();
+
 	@NonNull
 	protected ColorType[][] analyze(final @NonNull Class<?> cls, final @NonNull String methodName) throws Exception {
 		return analyze(cls, methodName, null, null, null, null, intesectionsCollector);
@@ -117,7 +119,7 @@ class BasePaintingSessionTest {
 		}
 
 		PaintingSession paintingSession = new PaintingSession(classPool,
-				onSourceSinkIntersection == null ? intesectionsCollector : onSourceSinkIntersection);
+				onSourceSinkIntersection == null ? intesectionsCollector : onSourceSinkIntersection, settings);
 
 		final CtClass[] actualInTypes;
 		if (!(ctBehavior instanceof CtMethod) || !Modifier.isStatic(((CtMethod) ctBehavior).getModifiers())) {
@@ -0,0 +1,108 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static io.github.vlsergey.secan4j.core.colored.ColorType.SourceData;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.ColoredObject;
+import io.github.vlsergey.secan4j.core.colored.Confidence;
+import io.github.vlsergey.secan4j.core.colored.SimpleColoredMethods;
+import io.github.vlsergey.secan4j.core.synthetic.SyntheticApplicationGenerator;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+
+class MethodContextsBudgetTest extends BasePaintingSessionTest {
+
+	private ColoredObject[] sourceOf(final Class<?> cls) throws Exception {
+		return new ColoredObject[] { null,
+				ColoredObject.sourceOnRoot(TestTraceItem.INSTANCE, classPool.get(cls.getName()), Confidence.EXPLICITLY),
+				null };
+	}
+
+	@Test
+	void testContextsBeyondBudgetAreRejected() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "append", null);
+		final ColoredObject[] outs = new ColoredObject[0];
+		final MethodContextsBudget budget = new MethodContextsBudget(1);
+
+		final List<ColoredObject[]> beyondBudget = new ArrayList<>();
+		assertEquals(singletonList(new PaintingTask.TaskKey(ctMethod, sourceOf(String.class), outs)),
+				budget.admit(ctMethod, asList(sourceOf(String.class), sourceOf(Integer.class)), outs,
+						beyondBudget::add));
+		assertEquals(1, beyondBudget.size());
+		assertArrayEquals(sourceOf(Integer.class), beyondBudget.get(0));
+
+		// already admitted context is reused
+		beyondBudget.clear();
+		assertEquals(singletonList(new PaintingTask.TaskKey(ctMethod, sourceOf(String.class), outs)),
+				budget.admit(ctMethod, singletonList(sourceOf(String.class)), outs, beyondBudget::add));
+		assertEquals(emptyList(), beyondBudget);
+
+		assertEquals(emptyList(), budget.admit(ctMethod, singletonList(sourceOf(Long.class)), outs, beyondBudget::add));
+		assertEquals(1, beyondBudget.size());
+	}
+
+	@Test
+	void testReleasedContextIsReplaced() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "append", null);
+		final ColoredObject[] outs = new ColoredObject[0];
+		final MethodContextsBudget budget = new MethodContextsBudget(1);
+
+		final List<ColoredObject[]> beyondBudget = new ArrayList<>();
+		final List<PaintingTask.TaskKey> admitted = budget.admit(ctMethod, singletonList(sourceOf(String.class)),
+				outs, beyondBudget::add);
+		assertEquals(1, admitted.size());
+
+		budget.release(admitted.get(0));
+		assertEquals(singletonList(new PaintingTask.TaskKey(ctMethod, sourceOf(Integer.class), outs)),
+				budget.admit(ctMethod, singletonList(sourceOf(Integer.class)), outs, beyondBudget::add));
+		assertEquals(emptyList(), beyondBudget);
+	}
+
+	@Test
+	void testResultsWithMinimalBudget() throws Exception {
+		settings.setMaxContextsPerMethod(1);
+		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData, null }, {} },
+				analyze(SimpleColoredMethods.class, "appendRecursively"));
+	}
+
+	@Test
+	void testTasksBeyondBudgetAreBounded() throws Exception {
+		final ClassPool classPool = new ClassPool(ClassPool.getDefault());
+		final SyntheticApplicationGenerator generator = new SyntheticApplicationGenerator(classPool,
+				new SyntheticApplicationGenerator.Settings().setDepth(3).setImplementations(2).setRecursion(true)
+						.setSeed(1)).generate();
+
+		settings.setMaxContextsPerMethod(1);
+		final PaintingSession session = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		session.analyze(generator.getEntryPoints());
+
+		// single admitted context, base task and marker task per slot of parametric
+		// summary, no matter how many contexts method was called with
+		final Map<PaintingTask.TaskKey, List<PaintingTask>> byMethod = session.getTaskStore().values().stream()
+				.collect(groupingBy(task -> task.getArguments().withoutColors()));
+		assertFalse(byMethod.isEmpty());
+		byMethod.forEach((method, tasks) -> {
+			final int slots = tasks.stream().filter(task -> task.getParamIns() != null)
+					.mapToInt(task -> task.getParamIns().length + task.getParamOuts().length).max().orElse(0);
+			assertTrue(tasks.size() <= 2 + slots, () -> method + " has " + tasks.size() + " tasks");
+		});
+	}
+
+}
@@ -0,0 +1,166 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.SimpleColoredMethods;
+import io.github.vlsergey.secan4j.core.colored.Validators;
+import io.github.vlsergey.secan4j.core.springwebmvc.BadControllerExample;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+
+class MethodSummaryStoreTest extends BasePaintingSessionTest {
+
+	private static class Gadget implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private static volatile boolean deserialized = false;
+
+		private void readObject(final ObjectInputStream ois) throws IOException, ClassNotFoundException {
+			ois.defaultReadObject();
+			deserialized = true;
+		}
+	}
+
+	private static final String JAVA_SQL_CONFIGURATION = "Connection:\n  prepareStatement:\n    arguments:\n"
+			+ "    - Command\nResultSet: UserProvided\n";
+
+	@TempDir
+	Path cacheDirectory;
+
+	@TempDir
+	Path classesDirectory;
+
+	@TempDir
+	Path configurationDirectory;
+
+	@Test
+	void testResultsAreReused() throws Exception {
+		settings.setSummaryCacheDirectory(cacheDirectory);
+
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "append", null);
+
+		final PaintingSession first = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final ColorType[][] firstResult = toColorType(first.analyze(ctMethod));
+		assertTrue(first.getTaskStore().size() > 0);
+		assertTrue(Files.list(cacheDirectory).findAny().isPresent());
+
+		final PaintingSession second = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final ColorType[][] secondResult = toColorType(second.analyze(ctMethod));
+		assertEquals(0, second.getTaskStore().size(), "Entry point results shall be loaded from cache");
+		assertArrayEquals(firstResult, secondResult);
+	}
+
+	@Test
+	void testForeignClassesAreNotDeserialized() throws Exception {
+		settings.setSummaryCacheDirectory(cacheDirectory);
+
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "append", null);
+		new PaintingSession(classPool, getIntesectionsCollector(), settings).analyze(ctMethod);
+
+		final List<Path> entries = Files.list(cacheDirectory).collect(toList());
+		assertFalse(entries.isEmpty());
+		for (Path entry : entries) {
+			try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(entry))) {
+				oos.writeObject(new Gadget());
+			}
+		}
+
+		final PaintingSession second = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		second.analyze(ctMethod);
+		assertFalse(Gadget.deserialized);
+		assertTrue(second.getTaskStore().size() > 0, "Entry point shall be analyzed again");
+	}
+
+	@Test
+	void testEntriesOfEvictedTasksAreDropped() throws Exception {
+		settings.setSummaryCacheDirectory(cacheDirectory);
+		settings.setTasksHeapBudget(0);
+
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "appendRecursively", null);
+
+		final PaintingSession session = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		session.analyze(ctMethod);
+		assertTrue(Files.list(cacheDirectory).findAny().isPresent());
+		assertTrue(session.getTaskStore().getEvictionsCount() > 0);
+
+		assertTrue(new HashSet<>(session.getTaskStore().values()).containsAll(session.getStoredSummaries().keySet()),
+				"Only tasks kept in store shall have stored summary entries");
+	}
+
+	@Test
+	void testResultsAreInvalidatedByChangeOfEmptyCallee() throws Exception {
+		settings.setSummaryCacheDirectory(cacheDirectory);
+		analyze(SimpleColoredMethods.class, "appendValidated");
+
+		final PaintingSession unchanged = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		unchanged.analyze(getCtMethod(classPool.get(SimpleColoredMethods.class.getName()), "appendValidated", null));
+		assertEquals(0, unchanged.getTaskStore().size(), "Entry point results shall be loaded from cache");
+
+		final CtClass validators = new ClassPool(true).get(Validators.class.getName());
+		validators.getDeclaredMethod("validate").setBody("{ $1.length(); }");
+		validators.writeFile(classesDirectory.toString());
+
+		final ClassPool changedClassPool = new ClassPool(true);
+		changedClassPool.insertClassPath(classesDirectory.toString());
+		final PaintingSession changed = new PaintingSession(changedClassPool, getIntesectionsCollector(), settings);
+		changed.analyze(
+				getCtMethod(changedClassPool.get(SimpleColoredMethods.class.getName()), "appendValidated", null));
+		assertTrue(changed.getTaskStore().size() > 0, "Change of empty callee shall invalidate cached results");
+	}
+
+	@Test
+	void testIntersectionsAreReportedAgain() throws Exception {
+		settings.setSummaryCacheDirectory(cacheDirectory);
+
+		analyze(BadControllerExample.class, "sqlInjection");
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+
+		getIntesectionsCollector().getTraces().clear();
+		analyze(BadControllerExample.class, "sqlInjection");
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+	}
+
+	@Test
+	void testResultsAreInvalidatedByRelatedConfigurationChangeOnly() throws Exception {
+		settings.setSummaryCacheDirectory(cacheDirectory);
+		settings.setConfigurationSources(singletonList(configurationDirectory));
+		final Path javaSql = configurationDirectory.resolve("java.sql.yaml");
+
+		// no sink, so no intersections and results are persisted
+		Files.writeString(javaSql, "ResultSet: UserProvided\n");
+		analyze(BadControllerExample.class, "sqlInjection");
+		assertEquals(0, getIntesectionsCollector().getTraces().size());
+
+		Files.writeString(configurationDirectory.resolve("com.example.yaml"), "Dao: Command\n");
+		final PaintingSession second = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		second.analyze(getCtMethod(classPool.get(BadControllerExample.class.getName()), "sqlInjection", null));
+		assertEquals(0, second.getTaskStore().size(), "Results shall be reused after unrelated configuration change");
+
+		Files.writeString(javaSql, JAVA_SQL_CONFIGURATION);
+		analyze(BadControllerExample.class, "sqlInjection");
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+	}
+
+}
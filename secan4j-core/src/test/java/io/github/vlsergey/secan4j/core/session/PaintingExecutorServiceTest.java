@@ -0,0 +1,142 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class PaintingExecutorServiceTest {
+
+	@Test
+	void testWaitForAllTasksToComplete() throws Exception {
+		final Map<Integer, AtomicInteger> executions = new ConcurrentHashMap<>();
+		final PaintingExecutorService<Integer, Integer> executorService = new PaintingExecutorService<>(
+				Function.identity(), task -> {
+					executions.computeIfAbsent(task, k -> new AtomicInteger()).incrementAndGet();
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException exc) {
+						Thread.currentThread().interrupt();
+					}
+				}, 4);
+
+		for (int i = 0; i < 100; i++) {
+			executorService.queue(i);
+		}
+		executorService.waitForAllTasksToComplete();
+
+		assertEquals(0, executorService.getQueueDepth());
+		assertEquals(100, executions.size());
+	}
+
+	@Test
+	void testRequeueWhileRunning() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch requeued = new CountDownLatch(1);
+		final AtomicInteger executions = new AtomicInteger();
+
+		final PaintingExecutorService<String, String> executorService = new PaintingExecutorService<>(
+				Function.identity(), task -> {
+					if (executions.incrementAndGet() == 1) {
+						started.countDown();
+						try {
+							requeued.await();
+						} catch (InterruptedException exc) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				}, 2);
+
+		executorService.queue("task");
+		started.await();
+		assertEquals(1, executorService.getQueueDepth());
+
+		// queued twice while running, but must be executed only once again
+		executorService.queue("task");
+		executorService.queue("task");
+		requeued.countDown();
+
+		executorService.waitForAllTasksToComplete();
+		assertEquals(2, executions.get());
+		assertEquals(0, executorService.getQueueDepth());
+	}
+
+	@Test
+	void testLowerPriorityFirst() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch queued = new CountDownLatch(1);
+		final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+		final PaintingExecutorService<Integer, Integer> executorService = new PaintingExecutorService<>(
+				Function.identity(), task -> {
+					if (task == -1) {
+						started.countDown();
+						try {
+							queued.await();
+						} catch (InterruptedException exc) {
+							Thread.currentThread().interrupt();
+						}
+					} else {
+						executed.add(task);
+					}
+				}, 1, task -> task % 10);
+
+		// occupy the only thread, so the rest are waiting in queue
+		executorService.queue(-1);
+		started.await();
+		for (int task : new int[] { 32, 11, 20, 31, 10 }) {
+			executorService.queue(task);
+		}
+		queued.countDown();
+
+		executorService.waitForAllTasksToComplete();
+		assertEquals(Arrays.asList(20, 10, 11, 31, 32), executed);
+	}
+
+	@Test
+	void testReprioritize() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch queued = new CountDownLatch(1);
+		final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+		final Map<Integer, Integer> priorities = new ConcurrentHashMap<>();
+
+		final PaintingExecutorService<Integer, Integer> executorService = new PaintingExecutorService<>(
+				Function.identity(), task -> {
+					if (task == -1) {
+						started.countDown();
+						try {
+							queued.await();
+						} catch (InterruptedException exc) {
+							Thread.currentThread().interrupt();
+						}
+					} else {
+						executed.add(task);
+					}
+				}, 1, task -> priorities.getOrDefault(task, 0));
+
+		executorService.queue(-1);
+		started.await();
+		for (int task : new int[] { 1, 2, 3 }) {
+			priorities.put(task, task);
+			executorService.queue(task);
+		}
+
+		// priority of waiting task is changed after it was queued
+		priorities.put(3, 0);
+		executorService.reprioritize(3);
+		queued.countDown();
+
+		executorService.waitForAllTasksToComplete();
+		assertEquals(Arrays.asList(3, 1, 2), executed);
+	}
+
+}
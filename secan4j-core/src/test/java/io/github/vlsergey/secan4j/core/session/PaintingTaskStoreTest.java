@@ -0,0 +1,54 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.SimpleColoredMethods;
+import javassist.CtBehavior;
+import javassist.CtClass;
+
+class PaintingTaskStoreTest extends BasePaintingSessionTest {
+
+	@Test
+	void testEvictionDoesNotChangeResults() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "append", null);
+
+		final PaintingSession unlimited = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final ColorType[][] expected = toColorType(unlimited.analyze(ctMethod));
+		assertEquals(0, unlimited.getTaskStore().getEvictionsCount());
+
+		settings.setTasksHeapBudget(0);
+		final PaintingSession limited = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final ColorType[][] actual = toColorType(limited.analyze(ctMethod));
+
+		assertArrayEquals(expected, actual);
+		assertTrue(limited.getTaskStore().getEvictionsCount() > 0);
+		assertTrue(limited.getTaskStore().size() < unlimited.getTaskStore().size());
+	}
+
+	@Test
+	void testMutuallyRecursiveTasksAreEvicted() throws Exception {
+		final CtClass ctClass = classPool.get(SimpleColoredMethods.class.getName());
+		final CtBehavior ctMethod = getCtMethod(ctClass, "appendRecursively", null);
+
+		final PaintingSession unlimited = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final ColorType[][] expected = toColorType(unlimited.analyze(ctMethod));
+		assertTrue(unlimited.getTaskStore().size() > 0);
+
+		// appendRecursively() and appendTwice() call each other: the whole cycle is
+		// released as soon as root task is completed
+		settings.setTasksHeapBudget(0);
+		final PaintingSession limited = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final ColorType[][] actual = toColorType(limited.analyze(ctMethod));
+
+		assertArrayEquals(expected, actual);
+		assertEquals(0, limited.getTaskStore().size());
+		assertEquals(unlimited.getTaskStore().size(), limited.getTaskStore().getEvictionsCount());
+	}
+
+}
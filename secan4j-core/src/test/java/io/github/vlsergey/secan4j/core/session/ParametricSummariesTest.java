@@ -0,0 +1,85 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static io.github.vlsergey.secan4j.core.colored.ColorType.Intersection;
+import static io.github.vlsergey.secan4j.core.colored.ColorType.SourceData;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.Confidence;
+import io.github.vlsergey.secan4j.core.colored.PaintedColor;
+import io.github.vlsergey.secan4j.core.colored.SimpleColoredMethods;
+import io.github.vlsergey.secan4j.core.session.ParametricSummaries.SlotMarker;
+import io.github.vlsergey.secan4j.core.session.ParametricSummaries.SummaryFlowTraceItem;
+import io.github.vlsergey.secan4j.core.springwebmvc.BadControllerExample;
+
+class ParametricSummariesTest extends BasePaintingSessionTest {
+
+	@BeforeEach
+	void enableParametricSummaries() {
+		settings.setParametricSummaries(true);
+	}
+
+	@Test
+	void testAppend() throws Exception {
+		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData }, {} },
+				analyze(SimpleColoredMethods.class, "append"));
+	}
+
+	@Test
+	void testAppendRecursively() throws Exception {
+		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData, null }, {} },
+				analyze(SimpleColoredMethods.class, "appendRecursively"));
+	}
+
+	@Test
+	void testAppendWithGivenColors() throws Exception {
+		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData }, {} },
+				analyze(SimpleColoredMethods.class, "append", null, new ColorType[] { null, SourceData, null },
+						null));
+	}
+
+	@Test
+	void testPrepareStatement() throws Exception {
+		assertArrayEquals(new ColorType[][] { { null, null, Intersection }, { null } },
+				analyze(SimpleColoredMethods.class, "prepareStatement"));
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+	}
+
+	@Test
+	void testSqlInjection() throws Exception {
+		analyze(BadControllerExample.class, "sqlInjection");
+		assertEquals(1, getIntesectionsCollector().getTraces().size());
+	}
+
+	@Test
+	void testTraceItemsAreInterned() throws Exception {
+		final PaintedColor first = PaintedColor.of(Confidence.EXPLICITLY,
+				new SummaryFlowTraceItem(new SummaryFlowTraceItem(new SlotMarker(1), null, "a"), null, "b"),
+				SourceData);
+		final PaintedColor second = PaintedColor.of(Confidence.EXPLICITLY,
+				new SummaryFlowTraceItem(new SummaryFlowTraceItem(new SlotMarker(1), null, "a"), null, "b"),
+				SourceData);
+		assertSame(first, second);
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(first.getSrc().findPrevious());
+			oos.writeObject(first);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+			assertSame(first.getSrc().findPrevious(), ois.readObject());
+			assertSame(first, ois.readObject());
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static io.github.vlsergey.secan4j.core.colored.ColorType.SourceData;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.colored.ColorType;
+import io.github.vlsergey.secan4j.core.colored.RecursiveColoredMethods;
+import javassist.CtBehavior;
+import lombok.NonNull;
+
+class RecursiveColoredMethodsTest extends BasePaintingSessionTest {
+
+	private long countExecutions(final @NonNull PaintingSession session) throws Exception {
+		final CtBehavior ctMethod = getCtMethod(classPool.get(RecursiveColoredMethods.class.getName()), "entry",
+				null);
+		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData, null }, {} },
+				toColorType(session.analyze(ctMethod)));
+		return session.getExecutorService().getExecutionsCount();
+	}
+
+	@Test
+	void testLevelsRequireLessExecutionsThanFifo() throws Exception {
+		final long byLevels = countExecutions(new PaintingSession(classPool, getIntesectionsCollector(), settings));
+		final long fifo = countExecutions(new PaintingSession(classPool, getIntesectionsCollector(), settings) {
+			@Override
+			protected int getPriority(final @NonNull PaintingTask task) {
+				return 0;
+			}
+		});
+		assertTrue(byLevels < fifo, () -> "Executions by levels: " + byLevels + ", FIFO: " + fifo);
+	}
+
+}
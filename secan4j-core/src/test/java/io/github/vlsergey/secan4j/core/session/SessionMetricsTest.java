@@ -0,0 +1,50 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.springwebmvc.BadControllerExample;
+import javassist.CtClass;
+
+class SessionMetricsTest extends BasePaintingSessionTest {
+
+	@Test
+	void testCountersAndMBean() throws Exception {
+		final CtClass ctClass = classPool.get(BadControllerExample.class.getName());
+		final PaintingSession session = new PaintingSession(classPool, getIntesectionsCollector(), settings);
+		final SessionMetrics metrics = session.getMetrics();
+
+		final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = metrics.registerMBean();
+		try {
+			session.analyze(getCtMethod(ctClass, "sqlInjection", null));
+
+			assertEquals(metrics.getTasksExecuted(), mBeanServer.getAttribute(name, "TasksExecuted"));
+		} finally {
+			mBeanServer.unregisterMBean(name);
+		}
+
+		assertTrue(metrics.getTasksCreated() > 0);
+		assertTrue(metrics.getTasksExecuted() >= metrics.getTasksCreated());
+		assertEquals(1L, metrics.getExecutedByReason().get(QueueReason.ANALYZE_REQUEST.name()));
+		assertEquals(metrics.getTasksExecuted(),
+				metrics.getExecutedByReason().values().stream().mapToLong(Long::longValue).sum());
+		assertTrue(metrics.getGraphsBuilt() > 0);
+		assertTrue(metrics.getColoringRounds() >= metrics.getGraphsBuilt());
+		assertTrue(metrics.getAnalyzedClasses() > 0);
+		assertEquals(0, metrics.getQueueDepth());
+
+		final Map<String, Long> mostExecuted = metrics.getMostExecutedMethods();
+		assertTrue(mostExecuted.keySet().stream().anyMatch(methodId -> methodId.contains(".sqlInjection(")));
+		assertTrue(metrics.toString().contains("tasks created"));
+	}
+
+}
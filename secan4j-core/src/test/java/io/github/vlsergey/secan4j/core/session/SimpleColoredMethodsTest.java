@@ -18,6 +18,12 @@ class SimpleColoredMethodsTest extends BasePaintingSessionTest {
 				analyze(SimpleColoredMethods.class, "append"));
 	}
 
+	@Test
+	void testAppendRecursively() throws Exception {
+		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData, null }, {} },
+				analyze(SimpleColoredMethods.class, "appendRecursively"));
+	}
+
 	@Test
 	void testConcatenation() throws Exception {
 		assertArrayEquals(new ColorType[][] { { null, SourceData, SourceData }, { SourceData } },
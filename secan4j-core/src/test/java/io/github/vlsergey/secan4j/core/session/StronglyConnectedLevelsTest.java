@@ -0,0 +1,67 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vlsergey.secan4j.core.colored.SimpleColoredMethods;
+import javassist.ClassPool;
+import javassist.CtMethod;
+
+class StronglyConnectedLevelsTest {
+
+	private static void link(final PaintingTask dependant, final PaintingTask... dependencies) {
+		dependant.setDependencies(new HashSet<>(Arrays.asList(dependencies)));
+		for (PaintingTask dependency : dependencies) {
+			dependency.addDependant(dependant);
+		}
+	}
+
+	private final ClassPool classPool = ClassPool.getDefault();
+
+	private PaintingTask newTask() throws Exception {
+		final CtMethod ctMethod = classPool.get(SimpleColoredMethods.class.getName()).getDeclaredMethod("append");
+		return new PaintingTask(ctMethod, null, null);
+	}
+
+	@Test
+	void testMutualRecursionSharesLevel() throws Exception {
+		final PaintingTask caller = newTask();
+		final PaintingTask even = newTask();
+		final PaintingTask odd = newTask();
+		final PaintingTask leaf = newTask();
+
+		link(caller, even);
+		link(even, odd, leaf);
+		link(odd, even);
+
+		final StronglyConnectedLevels levels = new StronglyConnectedLevels();
+		assertEquals(2, levels.getLevel(caller));
+		assertEquals(1, levels.getLevel(even));
+		assertEquals(1, levels.getLevel(odd));
+		assertEquals(0, levels.getLevel(leaf));
+	}
+
+	@Test
+	void testInvalidatedWithDependants() throws Exception {
+		final PaintingTask caller = newTask();
+		final PaintingTask callee = newTask();
+		final PaintingTask newLeaf = newTask();
+		link(caller, callee);
+
+		final StronglyConnectedLevels levels = new StronglyConnectedLevels();
+		assertEquals(1, levels.getLevel(caller));
+		assertEquals(0, levels.getLevel(callee));
+
+		link(callee, newLeaf);
+		levels.invalidate(callee);
+
+		assertEquals(2, levels.getLevel(caller));
+		assertEquals(1, levels.getLevel(callee));
+		assertEquals(0, levels.getLevel(newLeaf));
+	}
+
+}
@@ -0,0 +1,54 @@
+package io.github.vlsergey.secan4j.core.session;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.vlsergey.secan4j.core.springwebmvc.BadControllerExample;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class TaskExecutionEventTest extends BasePaintingSessionTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testEventsAreRecorded() throws Exception {
+		final Path file = directory.resolve("recording.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("io.github.vlsergey.secan4j.TaskExecution");
+			recording.enable("io.github.vlsergey.secan4j.MethodGraphBuild");
+			recording.enable("io.github.vlsergey.secan4j.Coloring");
+			recording.start();
+			analyze(BadControllerExample.class, "sqlInjection");
+			recording.stop();
+			recording.dump(file);
+		}
+
+		final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		final List<RecordedEvent> executions = events.stream()
+				.filter(event -> event.getEventType().getName().equals("io.github.vlsergey.secan4j.TaskExecution"))
+				.collect(toList());
+		assertFalse(executions.isEmpty());
+
+		final RecordedEvent entryPoint = executions.stream()
+				.filter(event -> event.getString("method").contains(".sqlInjection(")).findAny().orElseThrow();
+		assertEquals(QueueReason.ANALYZE_REQUEST.name(), entryPoint.getString("queueReason"));
+		assertTrue(entryPoint.getBoolean("resultChanged"));
+
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName()
+				.equals("io.github.vlsergey.secan4j.MethodGraphBuild") && event.getInt("nodes") > 0));
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName()
+				.equals("io.github.vlsergey.secan4j.Coloring") && event.getInt("rounds") > 0));
+	}
+
+}
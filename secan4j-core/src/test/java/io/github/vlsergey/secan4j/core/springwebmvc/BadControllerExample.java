@@ -26,4 +26,19 @@ public class BadControllerExample {
 		}
 	}
 
+	/**
+	 * Not an entry point, SQL injection is in called method
+	 */
+	public boolean sqlInjectionViaQuery(@RequestParam String userLogin) throws SQLException {
+		return query("SELECT 1 FROM users WHERE userLogin='" + userLogin + "'");
+	}
+
+	private boolean query(String sql) throws SQLException {
+		try (final Connection c = dataSource.getConnection();
+				final PreparedStatement ps = c.prepareStatement(sql);
+				final ResultSet rs = ps.executeQuery()) {
+			return rs.next();
+		}
+	}
+
 }
@@ -0,0 +1,317 @@
+package io.github.vlsergey.secan4j.core.synthetic;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.ParameterAnnotationsAttribute;
+import javassist.bytecode.annotation.Annotation;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * Generates synthetic Spring Web MVC application of configurable shape directly
+ * into {@link ClassPool}, so scaling tests do not depend on external jars.
+ * <p>
+ * Application consists of controllers and levels of services. Every controller
+ * has single entry point that passes user-provided request parameter to one of
+ * methods of the first level. Every method of each level passes it to
+ * {@link Settings#getFanOut()} methods of the next level, and some methods of
+ * the last level pass it to SQL sink (
+ * {@link java.sql.Connection#prepareStatement(String)}). Service instances are
+ * created by factory method that chooses one of
+ * {@link Settings#getImplementations()} classes of level, so calls are
+ * polymorphic. Generated application is fully determined by settings.
+ */
+public class SyntheticApplicationGenerator {
+
+	@Data
+	public static class Settings {
+
+		/**
+		 * Number of controllers, i.e. entry points
+		 */
+		private int controllers = 10;
+
+		/**
+		 * Number of service levels between controllers and sinks
+		 */
+		private int depth = 3;
+
+		/**
+		 * Number of next level methods called by each method
+		 */
+		private int fanOut = 2;
+
+		/**
+		 * Number of classes implementing each level, including level base class
+		 */
+		private int implementations = 1;
+
+		/**
+		 * Number of methods of each level class
+		 */
+		private int methodsPerLevel = 5;
+
+		/**
+		 * Package of generated classes
+		 */
+		private @NonNull String packageName = "io.github.vlsergey.secan4j.synthetic";
+
+		/**
+		 * Whether methods (conditionally) call the same method of previous level,
+		 * making all levels mutually recursive
+		 */
+		private boolean recursion = false;
+
+		/**
+		 * Seed to choose methods of the last level those call sink
+		 */
+		private long seed = 0;
+
+		/**
+		 * Probability of method of the last level to call sink
+		 */
+		private double sinkDensity = 0.2;
+	}
+
+	private static void addAnnotation(final @NonNull CtMethod ctMethod, final @NonNull String annotationType) {
+		final MethodInfo methodInfo = ctMethod.getMethodInfo();
+		final ConstPool constPool = methodInfo.getConstPool();
+		final AnnotationsAttribute attribute = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+		attribute.addAnnotation(new Annotation(annotationType, constPool));
+		methodInfo.addAttribute(attribute);
+	}
+
+	private static void addFirstParameterAnnotation(final @NonNull CtMethod ctMethod,
+			final @NonNull String annotationType, final int parametersCount) {
+		final MethodInfo methodInfo = ctMethod.getMethodInfo();
+		final ConstPool constPool = methodInfo.getConstPool();
+		final Annotation[][] annotations = new Annotation[parametersCount][0];
+		annotations[0] = new Annotation[] { new Annotation(annotationType, constPool) };
+
+		final ParameterAnnotationsAttribute attribute = new ParameterAnnotationsAttribute(constPool,
+				ParameterAnnotationsAttribute.visibleTag);
+		attribute.setAnnotations(annotations);
+		methodInfo.addAttribute(attribute);
+	}
+
+	private final @NonNull ClassPool classPool;
+
+	/**
+	 * All generated classes, in order of generation
+	 */
+	@Getter
+	private final @NonNull List<CtClass> generatedClasses = new ArrayList<>();
+
+	/**
+	 * Entry points of generated application, one per controller
+	 */
+	@Getter
+	private final @NonNull List<CtMethod> entryPoints = new ArrayList<>();
+
+	private final @NonNull Settings settings;
+
+	/**
+	 * Whether method of the last level calls sink, by method index
+	 */
+	private final boolean[] sinks;
+
+	/**
+	 * @param classPool pool to generate classes into. Spring Web MVC annotations
+	 *                  shall be available via this pool.
+	 */
+	public SyntheticApplicationGenerator(final @NonNull ClassPool classPool, final @NonNull Settings settings) {
+		if (settings.getDepth() < 1 || settings.getFanOut() < 1 || settings.getImplementations() < 1
+				|| settings.getMethodsPerLevel() < 1) {
+			throw new IllegalArgumentException(
+					"Depth, fan-out, implementations and methods per level shall be positive");
+		}
+
+		this.classPool = classPool;
+		this.settings = settings;
+
+		final Random random = new Random(settings.getSeed());
+		this.sinks = new boolean[settings.getMethodsPerLevel()];
+		for (int i = 0; i < sinks.length; i++) {
+			sinks[i] = random.nextDouble() < settings.getSinkDensity();
+		}
+	}
+
+	/**
+	 * Generates all classes of application. Bodies of methods are compiled after
+	 * all methods are declared, because levels may call each other in both
+	 * directions.
+	 */
+	@SneakyThrows
+	public @NonNull SyntheticApplicationGenerator generate() {
+		final List<List<CtClass>> levels = new ArrayList<>(settings.getDepth());
+		for (int level = 0; level < settings.getDepth(); level++) {
+			final List<CtClass> implementations = new ArrayList<>(settings.getImplementations());
+			final CtClass base = newClass(getLevelClassName(level, 0), null);
+			implementations.add(base);
+			for (int implementation = 1; implementation < settings.getImplementations(); implementation++) {
+				implementations.add(newClass(getLevelClassName(level, implementation), base));
+			}
+			levels.add(implementations);
+
+			for (CtClass ctClass : implementations) {
+				for (int method = 0; method < settings.getMethodsPerLevel(); method++) {
+					ctClass.addMethod(CtNewMethod.make("public String " + getMethodName(method)
+							+ "(java.sql.Connection c, String s) { return s; }", ctClass));
+				}
+			}
+			base.addMethod(CtNewMethod.make(
+					"public static " + base.getName() + " create(String s) { return null; }", base));
+		}
+
+		for (int level = 0; level < settings.getDepth(); level++) {
+			final CtClass base = levels.get(level).get(0);
+			base.getDeclaredMethod("create").setBody(getFactoryBody(level));
+
+			for (CtClass ctClass : levels.get(level)) {
+				for (int method = 0; method < settings.getMethodsPerLevel(); method++) {
+					ctClass.getDeclaredMethod(getMethodName(method)).setBody(getMethodBody(level, method));
+				}
+			}
+		}
+
+		for (int controller = 0; controller < settings.getControllers(); controller++) {
+			final CtClass ctClass = newClass(getControllerClassName(controller), null);
+			final CtMethod entryPoint = CtNewMethod.make("public String handle(String query, java.sql.Connection c) "
+					+ "{ return " + getLevelClassName(0, 0) + ".create(query)."
+					+ getMethodName(controller % settings.getMethodsPerLevel()) + "(c, query); }", ctClass);
+			ctClass.addMethod(entryPoint);
+			addAnnotation(entryPoint, "org.springframework.web.bind.annotation.GetMapping");
+			addFirstParameterAnnotation(entryPoint, "org.springframework.web.bind.annotation.RequestParam", 2);
+			entryPoints.add(entryPoint);
+		}
+		return this;
+	}
+
+	private @NonNull String getControllerClassName(final int controller) {
+		return settings.getPackageName() + ".Controller" + controller;
+	}
+
+	private @NonNull String getFactoryBody(final int level) {
+		final StringBuilder body = new StringBuilder("{ int k = Math.abs($1.hashCode() % ")
+				.append(settings.getImplementations()).append(");\n");
+		for (int implementation = 1; implementation < settings.getImplementations(); implementation++) {
+			body.append("if (k == ").append(implementation).append(") return new ")
+					.append(getLevelClassName(level, implementation)).append("();\n");
+		}
+		return body.append("return new ").append(getLevelClassName(level, 0)).append("(); }").toString();
+	}
+
+	private @NonNull String getLevelClassName(final int level, final int implementation) {
+		return settings.getPackageName() + ".Level" + level + (implementation == 0 ? "" : "Impl" + implementation);
+	}
+
+	private @NonNull String getMethodBody(final int level, final int method) {
+		// parameter names are not available to compiler of method body
+		final StringBuilder body = new StringBuilder("{ java.sql.Connection c = $1; String s = $2; String r = s;\n");
+		if (level == settings.getDepth() - 1) {
+			if (sinks[method]) {
+				body.append("c.prepareStatement(s);\n");
+			}
+		} else {
+			body.append(getLevelClassName(level + 1, 0)).append(" next = ").append(getLevelClassName(level + 1, 0))
+					.append(".create(s);\n");
+			for (int call = 0; call < settings.getFanOut(); call++) {
+				body.append("r = next.").append(getMethodName((method + call) % settings.getMethodsPerLevel()))
+						.append("(c, r);\n");
+			}
+		}
+		if (settings.isRecursion() && level > 0) {
+			body.append("if (s.length() > 1000) r = ").append(getLevelClassName(level - 1, 0)).append(".create(s).")
+					.append(getMethodName(method)).append("(c, r);\n");
+		}
+		return body.append("return r; }").toString();
+	}
+
+	private static @NonNull String getMethodName(final int method) {
+		return "m" + method;
+	}
+
+	/**
+	 * @return names of controller classes those entry points pass request
+	 *         parameter to sink (directly or via recursion)
+	 */
+	public @NonNull Set<String> getVulnerableControllers() {
+		final Set<String> result = new LinkedHashSet<>();
+		for (int controller = 0; controller < settings.getControllers(); controller++) {
+			if (reachesSink(0, controller % settings.getMethodsPerLevel())) {
+				result.add(getControllerClassName(controller));
+			}
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+	private @NonNull CtClass newClass(final @NonNull String className, final CtClass superclass)
+			throws CannotCompileException {
+		final CtClass ctClass = classPool.makeClass(className, superclass);
+		ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+		generatedClasses.add(ctClass);
+		return ctClass;
+	}
+
+	private boolean reachesSink(final int fromLevel, final int fromMethod) {
+		final int methods = settings.getMethodsPerLevel();
+		final boolean[] visited = new boolean[settings.getDepth() * methods];
+		final Deque<Integer> toVisit = new ArrayDeque<>();
+		toVisit.add(fromLevel * methods + fromMethod);
+
+		while (!toVisit.isEmpty()) {
+			final int node = toVisit.poll();
+			if (visited[node]) {
+				continue;
+			}
+			visited[node] = true;
+
+			final int level = node / methods;
+			final int method = node % methods;
+			if (level == settings.getDepth() - 1) {
+				if (sinks[method]) {
+					return true;
+				}
+			} else {
+				for (int call = 0; call < settings.getFanOut(); call++) {
+					toVisit.add((level + 1) * methods + (method + call) % methods);
+				}
+			}
+			if (settings.isRecursion() && level > 0) {
+				toVisit.add((level - 1) * methods + method);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes class files of generated classes, so application can be analyzed
+	 * from command line as well
+	 */
+	@SneakyThrows
+	public void writeClassFiles(final @NonNull Path directory) {
+		for (CtClass ctClass : generatedClasses) {
+			ctClass.writeFile(directory.toString());
+		}
+	}
+
+}
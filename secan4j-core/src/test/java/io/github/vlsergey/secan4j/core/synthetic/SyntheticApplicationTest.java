@@ -0,0 +1,65 @@
+package io.github.vlsergey.secan4j.core.synthetic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.github.vlsergey.secan4j.core.colored.TraceItem;
+import io.github.vlsergey.secan4j.core.session.IntesectionsCollector;
+import io.github.vlsergey.secan4j.core.session.PaintingSession;
+import io.github.vlsergey.secan4j.core.session.PaintingSessionSettings;
+import javassist.ClassPool;
+import lombok.NonNull;
+
+class SyntheticApplicationTest {
+
+	private static @NonNull Set<String> findVulnerableControllers(final @NonNull ClassPool classPool,
+			final @NonNull SyntheticApplicationGenerator generator, final @NonNull PaintingSessionSettings settings)
+			throws Exception {
+		final IntesectionsCollector collector = new IntesectionsCollector();
+		new PaintingSession(classPool, collector, settings).analyze(generator.getEntryPoints());
+
+		final Set<String> found = new TreeSet<>();
+		for (List<TraceItem> trace : collector.getTraces().values()) {
+			found.add(trace.get(0).getSourceCodePosition().getClassName());
+		}
+		return found;
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "3, 2, 1, false, 1", "4, 3, 1, true, 4", "3, 2, 3, false, 4", "3, 2, 2, true, 2" })
+	void testVulnerableControllersAreFound(final int depth, final int fanOut, final int implementations,
+			final boolean recursion, final int parallelism) throws Exception {
+		final ClassPool classPool = new ClassPool(ClassPool.getDefault());
+		final SyntheticApplicationGenerator generator = new SyntheticApplicationGenerator(classPool,
+				new SyntheticApplicationGenerator.Settings().setDepth(depth).setFanOut(fanOut)
+						.setImplementations(implementations).setRecursion(recursion).setMethodsPerLevel(8)
+						.setSinkDensity(0.25).setSeed(1)).generate();
+		assertFalse(generator.getVulnerableControllers().isEmpty());
+
+		assertEquals(new TreeSet<>(generator.getVulnerableControllers()), findVulnerableControllers(classPool,
+				generator, new PaintingSessionSettings().setParallelism(parallelism)));
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "1, 1", "2, 4" })
+	void testVulnerableControllersAreFoundWithContextsBudget(final int maxContextsPerMethod, final int parallelism)
+			throws Exception {
+		final ClassPool classPool = new ClassPool(ClassPool.getDefault());
+		final SyntheticApplicationGenerator generator = new SyntheticApplicationGenerator(classPool,
+				new SyntheticApplicationGenerator.Settings().setDepth(4).setFanOut(3).setImplementations(2)
+						.setRecursion(true).setMethodsPerLevel(8).setSinkDensity(0.25).setSeed(1)).generate();
+
+		// contexts beyond the budget shall not lose sources of other callers
+		assertEquals(new TreeSet<>(generator.getVulnerableControllers()),
+				findVulnerableControllers(classPool, generator, new PaintingSessionSettings()
+						.setParallelism(parallelism).setMaxContextsPerMethod(maxContextsPerMethod)));
+	}
+
+}
@@ -0,0 +1,284 @@
+package io.github.vlsergey.secan4j.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Compiles configuration files (<code>META-INF/secan4j/*.yaml</code>) into
+ * single binary index read by {@link IndexedSecanData}. Runs as a build step of
+ * <code>secan4j-data</code> module, so errors in configuration files (like
+ * unknown annotations) fail the build instead of analysis.
+ * <p>
+ * Index is a hash table keyed by class name (see
+ * {@link IndexedSecanData#getMemberKey(String, String)} for keys of members and
+ * signatures). Map keys of configuration files those start with lower case
+ * letter and have map values are treated as packages, all other keys as
+ * classes, so the same configuration shall not be split between package and
+ * class name (which is impossible for classes named by Java conventions
+ * anyway).
+ */
+public class ConfigurationIndexCompiler {
+
+	@AllArgsConstructor
+	private static class Entry {
+		final byte kind;
+		final int set;
+		final int arguments;
+	}
+
+	static final String ANNOTATIONS_PACKAGE = "io.github.vlsergey.secan4j.annotations.";
+
+	private static boolean isPackage(final @NonNull String key, final Object value) {
+		return value instanceof Map && !key.isEmpty() && Character.isLowerCase(key.charAt(0));
+	}
+
+	/**
+	 * Usage: <code>ConfigurationIndexCompiler configurationDirectory indexFile</code>
+	 */
+	public static void main(final String[] args) throws Exception {
+		if (args.length != 2) {
+			System.err.println("Usage: " + ConfigurationIndexCompiler.class.getName()
+					+ " <configuration directory> <index file>");
+			System.exit(1);
+		}
+
+		final byte[] index = new ConfigurationIndexCompiler().compile(ConfigurationResources.find(new File(args[0])));
+
+		final Path indexFile = Paths.get(args[1]);
+		Files.createDirectories(indexFile.toAbsolutePath().getParent());
+		Files.write(indexFile, index);
+	}
+
+	private final List<String> annotations = new ArrayList<>();
+
+	private final Map<String, Integer> annotationsIndices = new HashMap<>();
+
+	private final List<int[]> arguments = new ArrayList<>();
+
+	private final Map<String, Entry> entries = new TreeMap<>();
+
+	private final List<int[]> sets = new ArrayList<>();
+
+	private final Map<List<Integer>, Integer> setsIndices = new HashMap<>();
+
+	private final ObjectMapper yamlObjectMapper = new ObjectMapper(new YAMLFactory());
+
+	private void addClass(final @NonNull String fqcn, final @NonNull Object value,
+			final @NonNull Map<String, Entry> fileEntries) {
+		if (!(value instanceof Map)) {
+			fileEntries.put(fqcn, new Entry(IndexedSecanData.KIND_VALUE, toSet(fqcn, value),
+					IndexedSecanData.NO_ARGUMENTS));
+			return;
+		}
+
+		for (Map.Entry<?, ?> member : ((Map<?, ?>) value).entrySet()) {
+			final String memberKey = IndexedSecanData.getMemberKey(fqcn, String.valueOf(member.getKey()));
+			if (member.getValue() == null) {
+				continue;
+			}
+			if (!(member.getValue() instanceof Map)) {
+				fileEntries.put(memberKey, new Entry(IndexedSecanData.KIND_VALUE, toSet(memberKey, member.getValue()),
+						IndexedSecanData.NO_ARGUMENTS));
+				continue;
+			}
+
+			final Map<?, ?> overrides = (Map<?, ?>) member.getValue();
+			final Object result = overrides.get("result");
+			int argumentsIndex = IndexedSecanData.NO_ARGUMENTS;
+			if (overrides.get("arguments") != null) {
+				if (!(overrides.get("arguments") instanceof List)) {
+					throw new IllegalArgumentException("Arguments of " + memberKey + " shall be a list");
+				}
+				arguments.add(((List<?>) overrides.get("arguments")).stream()
+						.mapToInt(argument -> argument == null ? IndexedSecanData.NO_SET : toSet(memberKey, argument))
+						.toArray());
+				argumentsIndex = arguments.size() - 1;
+			}
+			fileEntries.put(memberKey, new Entry(IndexedSecanData.KIND_METHOD,
+					result == null ? IndexedSecanData.NO_SET : toSet(memberKey, result), argumentsIndex));
+
+			for (Map.Entry<?, ?> override : overrides.entrySet()) {
+				final String signature = String.valueOf(override.getKey());
+				if (!"result".equals(signature) && !"arguments".equals(signature) && override.getValue() != null) {
+					fileEntries.put(memberKey + signature, new Entry(IndexedSecanData.KIND_VALUE,
+							toSet(memberKey + signature, override.getValue()), IndexedSecanData.NO_ARGUMENTS));
+				}
+			}
+		}
+	}
+
+	private void addPackage(final @NonNull String packageName, final @NonNull Map<?, ?> data,
+			final @NonNull Map<String, Entry> fileEntries) {
+		for (Map.Entry<?, ?> entry : data.entrySet()) {
+			final String key = String.valueOf(entry.getKey());
+			if (entry.getValue() == null) {
+				continue;
+			}
+			if (isPackage(key, entry.getValue())) {
+				addPackage(packageName + "." + key, (Map<?, ?>) entry.getValue(), fileEntries);
+			} else {
+				addClass(packageName + "." + key, entry.getValue(), fileEntries);
+			}
+		}
+	}
+
+	/**
+	 * Files of deeper packages hide configuration of the same classes from files
+	 * of enclosing packages, the same way as {@link DataProvider} chooses files.
+	 */
+	byte[] compile(final @NonNull SortedMap<String, URL> files) throws IOException {
+		final List<String> fileNames = new ArrayList<>(files.keySet());
+		fileNames.sort(Comparator.comparing(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+
+		final List<String> processedPackages = new ArrayList<>();
+		for (String fileName : fileNames) {
+			final Map<?, ?> data = yamlObjectMapper.readValue(ConfigurationResources.read(files.get(fileName)),
+					Map.class);
+			if (data == null || data.isEmpty()) {
+				continue;
+			}
+
+			final String packageName = fileName.substring(0, fileName.length() - ConfigurationResources.SUFFIX.length());
+			final Map<String, Entry> fileEntries = new LinkedHashMap<>();
+			addPackage(packageName, data, fileEntries);
+
+			fileEntries.forEach((key, entry) -> {
+				final String className = IndexedSecanData.getClassName(key);
+				if (processedPackages.stream().noneMatch(processed -> className.startsWith(processed + "."))) {
+					entries.putIfAbsent(key, entry);
+				}
+			});
+			processedPackages.add(packageName);
+		}
+
+		return write(ConfigurationResources.hash(files));
+	}
+
+	private int toAnnotation(final @NonNull String key, final Object name) {
+		if (!(name instanceof String)) {
+			throw new IllegalArgumentException("Unsupported configuration format for " + key + ": " + name);
+		}
+		final String className = ANNOTATIONS_PACKAGE + name;
+		try {
+			Class.forName(className);
+		} catch (ClassNotFoundException exc) {
+			throw new IllegalArgumentException("Unknown annotation " + name + " in configuration of " + key, exc);
+		}
+		return annotationsIndices.computeIfAbsent(className, k -> {
+			annotations.add(k);
+			return annotations.size() - 1;
+		});
+	}
+
+	/**
+	 * @return index of set of annotations described by configuration value.
+	 *         Maps mean no annotations, same as for YAML-based
+	 *         {@link SecanData}.
+	 */
+	private int toSet(final @NonNull String key, final @NonNull Object value) {
+		final int[] set;
+		if (value instanceof Map) {
+			set = new int[0];
+		} else if (value instanceof List) {
+			set = ((List<?>) value).stream().mapToInt(name -> toAnnotation(key, name)).distinct().sorted().toArray();
+		} else {
+			set = new int[] { toAnnotation(key, value) };
+		}
+
+		return setsIndices.computeIfAbsent(Arrays.asList(Arrays.stream(set).boxed().toArray(Integer[]::new)), k -> {
+			sets.add(set);
+			return sets.size() - 1;
+		});
+	}
+
+	private byte[] write(final @NonNull String configurationVersion) throws IOException {
+		final ByteArrayOutputStream entriesBytes = new ByteArrayOutputStream();
+		final DataOutputStream entriesOut = new DataOutputStream(entriesBytes);
+
+		final int slotsCount = Integer.highestOneBit(Math.max(1, entries.size() * 2 - 1)) << 1;
+		final int[] slots = new int[slotsCount];
+		Arrays.fill(slots, IndexedSecanData.EMPTY_SLOT);
+
+		for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+			final String key = mapEntry.getKey();
+			int slot = IndexedSecanData.spread(key.hashCode()) & (slotsCount - 1);
+			while (slots[slot] != IndexedSecanData.EMPTY_SLOT) {
+				slot = (slot + 1) & (slotsCount - 1);
+			}
+			slots[slot] = entriesOut.size();
+
+			final Entry entry = mapEntry.getValue();
+			writeString(entriesOut, key);
+			entriesOut.writeByte(entry.kind);
+			entriesOut.writeInt(entry.set);
+			if (entry.kind == IndexedSecanData.KIND_METHOD) {
+				entriesOut.writeInt(entry.arguments);
+			}
+		}
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(IndexedSecanData.MAGIC);
+		out.writeInt(IndexedSecanData.FORMAT_VERSION);
+		writeString(out, configurationVersion);
+
+		out.writeInt(annotations.size());
+		for (String annotation : annotations) {
+			writeString(out, annotation);
+		}
+
+		out.writeInt(sets.size());
+		for (int[] set : sets) {
+			out.writeInt(set.length);
+			for (int annotation : set) {
+				out.writeInt(annotation);
+			}
+		}
+
+		out.writeInt(arguments.size());
+		for (int[] methodArguments : arguments) {
+			out.writeInt(methodArguments.length);
+			for (int set : methodArguments) {
+				out.writeInt(set);
+			}
+		}
+
+		out.writeInt(slotsCount);
+		for (int slot : slots) {
+			out.writeInt(slot);
+		}
+
+		entriesOut.flush();
+		entriesBytes.writeTo(out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void writeString(final @NonNull DataOutputStream out, final @NonNull String str)
+			throws IOException {
+		out.writeInt(str.length());
+		out.writeChars(str);
+	}
+
+}
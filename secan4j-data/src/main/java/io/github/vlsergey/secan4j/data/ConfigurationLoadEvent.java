@@ -0,0 +1,24 @@
+package io.github.vlsergey.secan4j.data;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of {@link DataProvider#loadImpl(String)} invocation
+ */
+@Category("secan4j")
+@Description("Loading of configuration resource")
+@Label("Configuration Load")
+@Name("io.github.vlsergey.secan4j.ConfigurationLoad")
+class ConfigurationLoadEvent extends Event {
+
+	@Label("Found")
+	boolean found;
+
+	@Label("Resource Path")
+	String resourcePath;
+
+}
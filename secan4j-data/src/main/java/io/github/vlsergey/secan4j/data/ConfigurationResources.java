@@ -0,0 +1,144 @@
+package io.github.vlsergey.secan4j.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * Lists all configuration files (<code>META-INF/secan4j/*.yaml</code>) visible
+ * from class loader, both from directories and from jars, as well as
+ * configuration files of additional configuration sources.
+ */
+class ConfigurationResources {
+
+	static final String DIRECTORY = "META-INF/secan4j/";
+
+	static final String SUFFIX = ".yaml";
+
+	/**
+	 * @return configuration file names mapped to their URLs
+	 */
+	@SneakyThrows
+	static @NonNull SortedMap<String, URL> find(final @NonNull File directory) {
+		final SortedMap<String, URL> result = new TreeMap<>();
+		findInDirectory(directory.toURI().toURL(), result);
+		return result;
+	}
+
+	/**
+	 * @param source directory with configuration files or jar with them under
+	 *               {@link #DIRECTORY}
+	 * @return configuration file names mapped to their URLs
+	 */
+	@SneakyThrows
+	static @NonNull SortedMap<String, URL> find(final @NonNull Path source) {
+		if (Files.isDirectory(source)) {
+			return find(source.toFile());
+		}
+
+		final SortedMap<String, URL> result = new TreeMap<>();
+		if (Files.isRegularFile(source)) {
+			try (JarFile jarFile = new JarFile(source.toFile())) {
+				findInJar(jarFile, new URL("jar:" + source.toUri().toURL() + "!/" + DIRECTORY), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return configuration file names (like <code>java.sql.yaml</code>) mapped to
+	 *         their URLs. If the same file is present in several class path
+	 *         elements, the first one is returned (same as
+	 *         {@link ClassLoader#getResource(String)} does).
+	 */
+	@SneakyThrows
+	static @NonNull SortedMap<String, URL> find(final @NonNull ClassLoader classLoader) {
+		final SortedMap<String, URL> result = new TreeMap<>();
+
+		final Enumeration<URL> directories = classLoader.getResources(DIRECTORY);
+		while (directories.hasMoreElements()) {
+			final URL directory = directories.nextElement();
+			if ("file".equals(directory.getProtocol())) {
+				findInDirectory(directory, result);
+			} else if ("jar".equals(directory.getProtocol())) {
+				findInJar(directory, result);
+			}
+		}
+		return result;
+	}
+
+	private static void findInDirectory(final @NonNull URL directory, final @NonNull Map<String, URL> result)
+			throws Exception {
+		final File[] files = new File(directory.toURI()).listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isFile() && file.getName().endsWith(SUFFIX)) {
+				result.putIfAbsent(file.getName(), file.toURI().toURL());
+			}
+		}
+	}
+
+	private static void findInJar(final @NonNull URL directory, final @NonNull Map<String, URL> result)
+			throws IOException {
+		final URLConnection connection = directory.openConnection();
+		connection.setUseCaches(false);
+		try (JarFile jarFile = ((JarURLConnection) connection).getJarFile()) {
+			findInJar(jarFile, directory, result);
+		}
+	}
+
+	private static void findInJar(final @NonNull JarFile jarFile, final @NonNull URL directory,
+			final @NonNull Map<String, URL> result) throws IOException {
+		final Enumeration<JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			final String entryName = entries.nextElement().getName();
+			if (entryName.startsWith(DIRECTORY) && entryName.endsWith(SUFFIX)
+					&& entryName.indexOf('/', DIRECTORY.length()) == -1) {
+				final String fileName = entryName.substring(DIRECTORY.length());
+				result.putIfAbsent(fileName, new URL(directory, fileName));
+			}
+		}
+	}
+
+	/**
+	 * @return hash of names and content of configuration files
+	 */
+	static @NonNull String hash(final @NonNull SortedMap<String, URL> files) throws IOException {
+		final Hasher hasher = Hashing.sha256().newHasher();
+		for (Map.Entry<String, URL> entry : files.entrySet()) {
+			hasher.putString(entry.getKey(), UTF_8);
+			hasher.putBytes(read(entry.getValue()));
+		}
+		return hasher.hash().toString();
+	}
+
+	static byte[] read(final @NonNull URL url) throws IOException {
+		final URLConnection connection = url.openConnection();
+		connection.setUseCaches(false);
+		try (InputStream is = connection.getInputStream()) {
+			return is.readAllBytes();
+		}
+	}
+
+}
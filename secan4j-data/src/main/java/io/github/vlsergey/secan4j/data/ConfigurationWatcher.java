@@ -0,0 +1,91 @@
+package io.github.vlsergey.secan4j.data;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import lombok.NonNull;
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Watches configuration sources of {@link DataProvider} and reloads it (see
+ * {@link DataProvider#reload()}) when any of them is changed. Directories are
+ * watched themselves, jars are watched by their parent directories. Intended
+ * for long-running processes those shall pick new configuration up without
+ * restart.
+ */
+@CommonsLog
+public class ConfigurationWatcher implements Closeable {
+
+	/**
+	 * Editors and build tools often write files in several steps, so changes are
+	 * applied only after there were no more changes during this delay
+	 */
+	private static final long QUIET_PERIOD_MILLIS = 200;
+
+	private final @NonNull DataProvider dataProvider;
+
+	private final @NonNull Thread thread;
+
+	private final @NonNull WatchService watchService;
+
+	public ConfigurationWatcher(final @NonNull DataProvider dataProvider) throws IOException {
+		this.dataProvider = dataProvider;
+
+		final Set<Path> directories = new LinkedHashSet<>();
+		for (Path source : dataProvider.getConfigurationSources()) {
+			directories.add(Files.isDirectory(source) ? source : source.toAbsolutePath().getParent());
+		}
+
+		this.watchService = FileSystems.getDefault().newWatchService();
+		for (Path directory : directories) {
+			directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+		}
+
+		this.thread = new Thread(this::watch, "secan4j-configuration-watcher");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void close() throws IOException {
+		thread.interrupt();
+		watchService.close();
+	}
+
+	private void watch() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.take();
+				do {
+					key.pollEvents();
+					key.reset();
+					Thread.sleep(QUIET_PERIOD_MILLIS);
+				} while ((key = watchService.poll()) != null);
+
+				try {
+					final Set<String> packages = dataProvider.reload();
+					if (!packages.isEmpty()) {
+						log.info("Configuration of packages " + packages + " was reloaded");
+					}
+				} catch (Exception exc) {
+					log.warn("Unable to reload configuration, previous one is kept: " + exc.getMessage(), exc);
+				}
+			}
+		} catch (ClosedWatchServiceException | InterruptedException exc) {
+			// watcher is closed
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package io.github.vlsergey.secan4j.data;
+
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * Tells classes those definitely have no configuration without any I/O. Keeps
+ * full names of all nodes of all configuration files (packages, classes and
+ * members alike), so it never rejects configured class, whichever way
+ * configuration is interpreted.
+ */
+class ConfiguredClassesFilter {
+
+	private static final ObjectMapper YAML_OBJECT_MAPPER = new ObjectMapper(new YAMLFactory());
+
+	private static void addPaths(final @NonNull String prefix, final @NonNull Map<?, ?> data,
+			final @NonNull Set<String> result) {
+		data.forEach((key, value) -> {
+			final String path = prefix + "." + key;
+			result.add(path);
+			if (value instanceof Map) {
+				addPaths(path, (Map<?, ?>) value, result);
+			}
+		});
+	}
+
+	/**
+	 * @param files configuration files, see
+	 *              {@link ConfigurationResources#find(ClassLoader)}
+	 */
+	@SneakyThrows
+	static @NonNull ConfiguredClassesFilter build(final @NonNull SortedMap<String, URL> files) {
+		final Set<String> paths = new HashSet<>();
+		for (Map.Entry<String, URL> file : files.entrySet()) {
+			final Map<?, ?> data = YAML_OBJECT_MAPPER.readValue(ConfigurationResources.read(file.getValue()),
+					Map.class);
+			if (data != null) {
+				final String fileName = file.getKey();
+				addPaths(fileName.substring(0, fileName.length() - ConfigurationResources.SUFFIX.length()), data,
+						paths);
+			}
+		}
+		return new ConfiguredClassesFilter(paths);
+	}
+
+	private final @NonNull Set<String> paths;
+
+	private ConfiguredClassesFilter(final @NonNull Set<String> paths) {
+		this.paths = paths;
+	}
+
+	/**
+	 * @return <code>false</code> if class definitely has no configuration
+	 */
+	boolean mayBeConfigured(final @NonNull String fqcn) {
+		return paths.contains(fqcn);
+	}
+
+}
@@ -1,27 +1,85 @@
 package io.github.vlsergey.secan4j.data;
 
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonMap;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Collections.unmodifiableSortedMap;
 
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.base.Suppliers;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 
+/**
+ * Configuration of classes from <code>META-INF/secan4j/*.yaml</code> files of
+ * class path and of additional configuration sources (directories and jars).
+ * Files of configuration sources replace class path files with the same name.
+ * Configuration sources may be changed at runtime, see {@link #reload()}.
+ */
 public class DataProvider {
 
+	/**
+	 * Configuration files visible to provider at some moment
+	 */
+	@AllArgsConstructor
+	private static class ConfigurationFiles {
+
+		/**
+		 * Names of files those are read from configuration sources instead of class
+		 * path
+		 */
+		final @NonNull Set<String> fromSources;
+
+		/**
+		 * Hashes of content of all visible files by file name
+		 */
+		final @NonNull Map<String, String> hashes;
+
+		/**
+		 * Filter of classes configured by files of configuration sources,
+		 * <code>null</code> if there are no such files
+		 */
+		final @Nullable ConfiguredClassesFilter sourcesFilter;
+
+		/**
+		 * All visible files by file name
+		 */
+		final @NonNull SortedMap<String, URL> urls;
+
+		final @NonNull String version;
+	}
+
 	@AllArgsConstructor
 	@Data
 	static class ResourcePathCandidate {
@@ -29,24 +87,169 @@ public class DataProvider {
 		final List<String> tokens;
 	}
 
+	private static final int CACHES_CONCURRENCY_LEVEL = Runtime.getRuntime().availableProcessors();
+
 	private static final int CACHES_SIZE = 1 << 15;
 
+	/**
+	 * Shared by all providers, because all of them read configuration from the
+	 * same class loader
+	 */
+	private static final Supplier<ConfiguredClassesFilter> CONFIGURED_CLASSES_FILTER = Suppliers.memoize(
+			() -> ConfiguredClassesFilter.build(ConfigurationResources.find(DataProvider.class.getClassLoader())));
+
 	private static final SecanData EMPTY = new SecanData(emptyMap());
 
 	private static final String RESOURCE_PREFIX = "/META-INF/secan4j/";
 
 	private static final String RESOURCE_SUFFIX = ".yaml";
 
-	private final Cache<String, SecanData> clsToData = CacheBuilder.newBuilder().concurrencyLevel(1)
-			.maximumSize(CACHES_SIZE).build();
+	private final @NonNull List<Consumer<Set<String>>> changeListeners = new CopyOnWriteArrayList<>();
+
+	private final Cache<String, SecanData> clsToData = CacheBuilder.newBuilder()
+			.concurrencyLevel(CACHES_CONCURRENCY_LEVEL).maximumSize(CACHES_SIZE).recordStats().build();
+
+	private final Cache<String, Map<String, ?>> resourcePathToData = CacheBuilder.newBuilder()
+			.concurrencyLevel(CACHES_CONCURRENCY_LEVEL).maximumSize(CACHES_SIZE).build();
 
-	private final Cache<String, Map<String, ?>> resourcePathToData = CacheBuilder.newBuilder().concurrencyLevel(1)
-			.maximumSize(CACHES_SIZE).build();
+	/**
+	 * Directories and jars with additional configuration files
+	 */
+	@Getter
+	private final @NonNull List<Path> configurationSources;
+
+	/**
+	 * Lazily found on first use and replaced atomically on {@link #reload()}
+	 */
+	private final AtomicReference<ConfigurationFiles> files = new AtomicReference<>();
+
+	/**
+	 * Immutable configuration of all classes, read without locks and replaced
+	 * atomically. Initialized on first lookup with precompiled index (used only
+	 * if it was compiled from exactly the same files those are visible to this
+	 * provider) or with nothing (then YAML files are read and cached class by
+	 * class). {@link #preload()} always sets it.
+	 */
+	private final AtomicReference<Optional<SecanData>> snapshot = new AtomicReference<>();
 
 	private final ObjectMapper yamlObjectMapper = new ObjectMapper(new YAMLFactory());
 
+	public DataProvider() {
+		this(Collections.emptyList());
+	}
+
+	/**
+	 * @param configurationSources directories with configuration files (like
+	 *                             <code>java.sql.yaml</code>) and jars with
+	 *                             configuration files under
+	 *                             <code>META-INF/secan4j/</code>. Earlier
+	 *                             sources take precedence over later ones.
+	 */
+	public DataProvider(final @NonNull List<Path> configurationSources) {
+		this.configurationSources = Collections.unmodifiableList(new ArrayList<>(configurationSources));
+	}
+
+	/**
+	 * Registers listener to be notified (with names of packages those
+	 * configuration files were changed) after configuration is reloaded
+	 */
+	public void addChangeListener(final @NonNull Consumer<Set<String>> listener) {
+		changeListeners.add(listener);
+	}
+
+	/**
+	 * @return configuration of all visible files compiled into index in memory
+	 */
+	@NonNull
+	IndexedSecanData compileSnapshot() {
+		return compileSnapshot(getFiles());
+	}
+
+	@SneakyThrows
+	private static @NonNull IndexedSecanData compileSnapshot(final @NonNull ConfigurationFiles files) {
+		return new IndexedSecanData(ByteBuffer.wrap(new ConfigurationIndexCompiler().compile(files.urls)));
+	}
+
+	@SneakyThrows
+	private @NonNull ConfigurationFiles findFiles() {
+		final SortedMap<String, URL> fromSources = new TreeMap<>();
+		for (Path source : configurationSources) {
+			ConfigurationResources.find(source).forEach(fromSources::putIfAbsent);
+		}
+
+		final SortedMap<String, URL> urls = new TreeMap<>(
+				ConfigurationResources.find(DataProvider.class.getClassLoader()));
+		urls.putAll(fromSources);
+
+		final Map<String, String> hashes = new TreeMap<>();
+		for (Map.Entry<String, URL> file : urls.entrySet()) {
+			hashes.put(file.getKey(),
+					Hashing.sha256().hashBytes(ConfigurationResources.read(file.getValue())).toString());
+		}
+
+		return new ConfigurationFiles(unmodifiableSet(fromSources.keySet()), hashes,
+				fromSources.isEmpty() ? null : ConfiguredClassesFilter.build(fromSources), unmodifiableSortedMap(urls),
+				ConfigurationResources.hash(urls));
+	}
+
+	/**
+	 * @return hash of all configuration files those may configure given class
+	 *         (i.e. files of all its enclosing packages) or empty string if there
+	 *         are no such files. Changes every time configuration of class may
+	 *         change.
+	 */
+	public @NonNull String getConfigurationHash(final @NonNull String fqcn) {
+		final Map<String, String> hashes = getFiles().hashes;
+		final StringBuilder result = new StringBuilder();
+		for (ResourcePathCandidate candidate : getResourcePathCandidates(fqcn)) {
+			final String hash = hashes.get(candidate.getPath().substring(RESOURCE_PREFIX.length()));
+			if (hash != null) {
+				result.append(result.length() == 0 ? "" : ",").append(hash);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * @return hash of all configuration files visible to this provider. Changes
+	 *         every time any of configuration files is changed, added or removed.
+	 */
+	public @NonNull String getConfigurationVersion() {
+		return getFiles().version;
+	}
+
+	private @NonNull ConfigurationFiles getFiles() {
+		ConfigurationFiles current = files.get();
+		if (current == null) {
+			files.compareAndSet(null, findFiles());
+			current = files.get();
+		}
+		return current;
+	}
+
+	/**
+	 * @return statistics of cache of configuration data by class name
+	 */
+	public @NonNull CacheStats getClassDataCacheStats() {
+		return clsToData.stats();
+	}
+
 	@SneakyThrows
 	public @NonNull SecanData getDataForClass(final @NonNull String fqcn) {
+		Optional<SecanData> current = snapshot.get();
+		if (current == null) {
+			snapshot.compareAndSet(null, loadIndex(getFiles()).map(SecanData.class::cast));
+			current = snapshot.get();
+		}
+		if (current.isPresent()) {
+			return current.get();
+		}
+		if (!CONFIGURED_CLASSES_FILTER.get().mayBeConfigured(fqcn)) {
+			final ConfiguredClassesFilter sourcesFilter = getFiles().sourcesFilter;
+			if (sourcesFilter == null || !sourcesFilter.mayBeConfigured(fqcn)) {
+				return EMPTY;
+			}
+		}
 		return clsToData.get(fqcn, () -> getDataForClassImpl(fqcn));
 	}
 
@@ -68,6 +271,69 @@ public class DataProvider {
 		return EMPTY;
 	}
 
+	/**
+	 * Loads configuration of all classes at once (from precompiled index or, if
+	 * it does not match visible configuration files, by compiling files in
+	 * memory) and atomically replaces current one. After that lookups never wait
+	 * for configuration files to be read and parsed and scale with number of
+	 * threads.
+	 */
+	public void preload() {
+		snapshot.set(Optional.of(loadIndex(getFiles()).map(SecanData.class::cast).orElseGet(this::compileSnapshot)));
+	}
+
+	/**
+	 * Rereads configuration files of class path and configuration sources.
+	 * Cached configuration is dropped only for packages those files were
+	 * changed, added or removed. If configuration was preloaded, it is preloaded
+	 * again before it is replaced, so lookups never see partially updated
+	 * configuration and invalid files do not replace valid ones.
+	 *
+	 * @return names of packages those files were changed, added or removed
+	 */
+	public synchronized @NonNull Set<String> reload() {
+		final ConfigurationFiles prev = getFiles();
+		final ConfigurationFiles current = findFiles();
+
+		final Set<String> changedFiles = new HashSet<>(prev.hashes.keySet());
+		changedFiles.addAll(current.hashes.keySet());
+		changedFiles.removeIf(fileName -> Objects.equals(prev.hashes.get(fileName), current.hashes.get(fileName))
+				&& prev.fromSources.contains(fileName) == current.fromSources.contains(fileName));
+		if (changedFiles.isEmpty()) {
+			return emptySet();
+		}
+
+		final Optional<SecanData> prevSnapshot = snapshot.get();
+		final Optional<SecanData> newSnapshot = prevSnapshot == null || prevSnapshot.isEmpty() ? prevSnapshot
+				: Optional.of(loadIndex(current).map(SecanData.class::cast).orElseGet(() -> compileSnapshot(current)));
+
+		final Set<String> packages = new HashSet<>();
+		changedFiles.forEach(
+				fileName -> packages.add(fileName.substring(0, fileName.length() - RESOURCE_SUFFIX.length())));
+
+		files.set(current);
+		snapshot.set(newSnapshot);
+		changedFiles.forEach(fileName -> resourcePathToData.invalidate(RESOURCE_PREFIX + fileName));
+		clsToData.asMap().keySet().removeIf(fqcn -> isInPackages(fqcn, packages));
+
+		final Set<String> result = unmodifiableSet(packages);
+		changeListeners.forEach(listener -> listener.accept(result));
+		return result;
+	}
+
+	/**
+	 * @return <code>true</code> if class belongs to one of packages (or their
+	 *         subpackages)
+	 */
+	public static boolean isInPackages(final @NonNull String fqcn, final @NonNull Set<String> packages) {
+		for (int i = fqcn.indexOf('.'); i != -1; i = fqcn.indexOf('.', i + 1)) {
+			if (packages.contains(fqcn.substring(0, i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public @NonNull Set<Class<?>>[] getForMethodArguments(final @NonNull String fqcn, final @NonNull String methodName,
 			final @NonNull String methodSignature) {
 		return getDataForClass(fqcn).getForMethodArguments(fqcn, methodName, methodSignature);
@@ -110,6 +376,11 @@ public class DataProvider {
 		return result;
 	}
 
+	private @NonNull Optional<IndexedSecanData> loadIndex(final @NonNull ConfigurationFiles files) {
+		return IndexedSecanData.load(DataProvider.class.getClassLoader())
+				.filter(indexed -> indexed.getConfigurationVersion().equals(files.version));
+	}
+
 	@SneakyThrows
 	protected @NonNull Map<String, ?> load(final @NonNull String resourcePath) {
 		return resourcePathToData.get(resourcePath, () -> loadImpl(resourcePath));
@@ -118,14 +389,25 @@ public class DataProvider {
 	@SneakyThrows
 	@SuppressWarnings("unchecked")
 	protected @NonNull Map<String, ?> loadImpl(final @NonNull String resourcePath) {
-		final InputStream is = DataProvider.class.getResourceAsStream(resourcePath);
+		final ConfigurationLoadEvent event = new ConfigurationLoadEvent();
+		event.begin();
+		event.resourcePath = resourcePath;
+
+		final ConfigurationFiles current = getFiles();
+		final String fileName = resourcePath.substring(RESOURCE_PREFIX.length());
+		final InputStream is = current.fromSources.contains(fileName)
+				? current.urls.get(fileName).openStream()
+				: DataProvider.class.getResourceAsStream(resourcePath);
+		event.found = is != null;
 		if (is == null) {
+			event.commit();
 			return emptyMap();
 		}
 		try {
 			return yamlObjectMapper.readValue(is, Map.class);
 		} finally {
 			is.close();
+			event.commit();
 		}
 	}
 
@@ -0,0 +1,313 @@
+package io.github.vlsergey.secan4j.data;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+/**
+ * {@link SecanData} of all classes at once, backed by index compiled by
+ * {@link ConfigurationIndexCompiler}. Each lookup is a single probe of hash
+ * table in (memory-mapped, if possible) index, annotation classes are resolved
+ * once on load.
+ */
+class IndexedSecanData extends SecanData {
+
+	static final int EMPTY_SLOT = -1;
+
+	static final int FORMAT_VERSION = 2;
+
+	static final String INDEX_RESOURCE = ConfigurationResources.DIRECTORY + "configuration.index";
+
+	/**
+	 * Value of entry is single set of annotations
+	 */
+	static final byte KIND_VALUE = 1;
+
+	/**
+	 * Entry is map of method overrides with (optional) result annotations and
+	 * index of arguments annotations
+	 */
+	static final byte KIND_METHOD = 2;
+
+	static final int MAGIC = 0x5345434E;
+
+	private static final char MEMBER_SEPARATOR = '#';
+
+	static final int NO_ARGUMENTS = -1;
+
+	static final int NO_SET = -1;
+
+	static @NonNull String getClassName(final @NonNull String key) {
+		final int separatorIndex = key.indexOf(MEMBER_SEPARATOR);
+		return separatorIndex == -1 ? key : key.substring(0, separatorIndex);
+	}
+
+	/**
+	 * @return key of field or methods with the same name. Key of specific method
+	 *         override is this key followed by method signature.
+	 */
+	static @NonNull String getMemberKey(final @NonNull String fqcn, final @NonNull String memberName) {
+		return fqcn + MEMBER_SEPARATOR + memberName;
+	}
+
+	/**
+	 * Loads index from class path. Index file is memory-mapped if it is a plain
+	 * file, otherwise (when it is packed into jar) it is read into heap.
+	 */
+	@SneakyThrows
+	static @NonNull Optional<IndexedSecanData> load(final @NonNull ClassLoader classLoader) {
+		final URL url = classLoader.getResource(INDEX_RESOURCE);
+		if (url == null) {
+			return Optional.empty();
+		}
+
+		if ("file".equals(url.getProtocol())) {
+			try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+				return Optional.of(new IndexedSecanData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+			}
+		}
+
+		final URLConnection connection = url.openConnection();
+		connection.setUseCaches(false);
+		try (InputStream is = connection.getInputStream()) {
+			return Optional.of(new IndexedSecanData(ByteBuffer.wrap(is.readAllBytes())));
+		}
+	}
+
+	private static @NonNull String readString(final @NonNull ByteBuffer buffer) {
+		final char[] chars = new char[buffer.getInt()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = buffer.getChar();
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @return the same as <code>str.hashCode()</code> for concatenation of
+	 *         <code>hashCode</code> source and <code>str</code>
+	 */
+	private static int continueHashCode(int hashCode, final @Nullable String str) {
+		if (str != null) {
+			for (int i = 0; i < str.length(); i++) {
+				hashCode = 31 * hashCode + str.charAt(i);
+			}
+		}
+		return hashCode;
+	}
+
+	private static int length(final @Nullable String str) {
+		return str == null ? 0 : str.length();
+	}
+
+	static int spread(final int hashCode) {
+		return hashCode ^ (hashCode >>> 16);
+	}
+
+	/**
+	 * Pre-resolved configuration of arguments of methods
+	 */
+	private final @NonNull Set<Class<?>>[][] arguments;
+
+	private final @NonNull ByteBuffer buffer;
+
+	/**
+	 * Hash of configuration files index was compiled from, see
+	 * {@link DataProvider#getConfigurationVersion()}
+	 */
+	@Getter
+	private final @NonNull String configurationVersion;
+
+	private final int entriesStart;
+
+	private final @NonNull Set<Class<?>>[] sets;
+
+	private final int slotsCount;
+
+	private final int slotsStart;
+
+	@SuppressWarnings("unchecked")
+	IndexedSecanData(final @NonNull ByteBuffer buffer) throws ClassNotFoundException {
+		super(emptyMap());
+		this.buffer = buffer;
+
+		final ByteBuffer header = buffer.duplicate();
+		if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+			throw new IllegalArgumentException("Not a configuration index or unsupported index format version");
+		}
+		this.configurationVersion = readString(header);
+
+		final Class<?>[] annotations = new Class<?>[header.getInt()];
+		for (int i = 0; i < annotations.length; i++) {
+			annotations[i] = Class.forName(readString(header));
+		}
+
+		this.sets = new Set[header.getInt()];
+		for (int i = 0; i < sets.length; i++) {
+			final ImmutableSet.Builder<Class<?>> builder = ImmutableSet.builder();
+			for (int j = header.getInt(); j > 0; j--) {
+				builder.add(annotations[header.getInt()]);
+			}
+			sets[i] = builder.build();
+		}
+
+		this.arguments = new Set[header.getInt()][];
+		for (int i = 0; i < arguments.length; i++) {
+			arguments[i] = new Set[header.getInt()];
+			for (int j = 0; j < arguments[i].length; j++) {
+				final int set = header.getInt();
+				arguments[i][j] = set == NO_SET ? null : sets[set];
+			}
+		}
+
+		this.slotsCount = header.getInt();
+		this.slotsStart = header.position();
+		this.entriesStart = slotsStart + slotsCount * Integer.BYTES;
+	}
+
+	/**
+	 * Finds entry of concatenated key without concatenating it
+	 *
+	 * @param memberName nullable for class entries
+	 * @param signature  nullable for class and member entries
+	 * @return position of entry kind or <code>-1</code> if there is no entry for
+	 *         the key
+	 */
+	private int find(final @NonNull String fqcn, final @Nullable String memberName,
+			final @Nullable String signature) {
+		int hashCode = continueHashCode(0, fqcn);
+		if (memberName != null) {
+			hashCode = continueHashCode(31 * hashCode + MEMBER_SEPARATOR, memberName);
+		}
+		hashCode = continueHashCode(hashCode, signature);
+		final int keyLength = fqcn.length() + (memberName == null ? 0 : 1 + memberName.length()) + length(signature);
+
+		int slot = spread(hashCode) & (slotsCount - 1);
+		while (true) {
+			final int offset = buffer.getInt(slotsStart + slot * Integer.BYTES);
+			if (offset == EMPTY_SLOT) {
+				return -1;
+			}
+
+			final int entry = entriesStart + offset;
+			if (buffer.getInt(entry) == keyLength && keyEquals(entry + Integer.BYTES, fqcn, memberName, signature)) {
+				return entry + Integer.BYTES + keyLength * Character.BYTES;
+			}
+			slot = (slot + 1) & (slotsCount - 1);
+		}
+	}
+
+	@Override
+	public Set<Class<?>> getForAnnotation(final String annotationClassName) {
+		final int entry = find(annotationClassName, null, null);
+		return entry != -1 && buffer.get(entry) == KIND_VALUE ? getSet(entry) : emptySet();
+	}
+
+	@Override
+	public Set<Class<?>> getForField(final String fqcn, final String fieldName, final String signature) {
+		final int classEntry = find(fqcn, null, null);
+		if (classEntry != -1) {
+			return getSet(classEntry);
+		}
+
+		final int fieldEntry = find(fqcn, fieldName, null);
+		if (fieldEntry == -1) {
+			return emptySet();
+		}
+		if (buffer.get(fieldEntry) != KIND_VALUE) {
+			throw new UnsupportedOperationException(
+					"Unsupported configuration format for field " + fieldName + " of " + fqcn);
+		}
+		return getSet(fieldEntry);
+	}
+
+	@Override
+	public Set<Class<?>>[] getForMethodArguments(final String fqcn, final String methodName, final String signature) {
+		if (find(fqcn, null, null) != -1) {
+			return emptyArguments(signature);
+		}
+
+		final int methodEntry = find(fqcn, methodName, null);
+		if (methodEntry == -1 || buffer.get(methodEntry) == KIND_VALUE) {
+			return emptyArguments(signature);
+		}
+
+		final int argumentsIndex = buffer.getInt(methodEntry + 1 + Integer.BYTES);
+		if (argumentsIndex == NO_ARGUMENTS) {
+			throw new UnsupportedOperationException("Unsupported configuration format for result of method override "
+					+ signature + " of " + fqcn + "." + methodName);
+		}
+		return arguments[argumentsIndex];
+	}
+
+	@Override
+	public Set<Class<?>> getForMethodResult(final String fqcn, final String methodName, final String signature) {
+		final int classEntry = find(fqcn, null, null);
+		if (classEntry != -1) {
+			return getSet(classEntry);
+		}
+
+		final int methodEntry = find(fqcn, methodName, null);
+		if (methodEntry == -1) {
+			return emptySet();
+		}
+		if (buffer.get(methodEntry) == KIND_METHOD) {
+			final int overrideEntry = find(fqcn, methodName, signature);
+			if (overrideEntry != -1) {
+				return getSet(overrideEntry);
+			}
+		}
+		return getSet(methodEntry);
+	}
+
+	/**
+	 * @return set of value entry or result set of method entry
+	 */
+	private @NonNull Set<Class<?>> getSet(final int entry) {
+		final int set = buffer.getInt(entry + 1);
+		return set == NO_SET ? emptySet() : sets[set];
+	}
+
+	private boolean keyEquals(int position, final @NonNull String fqcn, final @Nullable String memberName,
+			final @Nullable String signature) {
+		position = partEquals(position, fqcn);
+		if (position != -1 && memberName != null) {
+			position = buffer.getChar(position) == MEMBER_SEPARATOR
+					? partEquals(position + Character.BYTES, memberName)
+					: -1;
+		}
+		if (position != -1 && signature != null) {
+			position = partEquals(position, signature);
+		}
+		return position != -1;
+	}
+
+	/**
+	 * @return position after compared part or <code>-1</code> if part differs
+	 */
+	private int partEquals(final int position, final @NonNull String part) {
+		for (int i = 0; i < part.length(); i++) {
+			if (buffer.getChar(position + i * Character.BYTES) != part.charAt(i)) {
+				return -1;
+			}
+		}
+		return position + part.length() * Character.BYTES;
+	}
+
+}
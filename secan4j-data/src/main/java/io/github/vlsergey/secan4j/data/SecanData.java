@@ -1,258 +1,236 @@
 package io.github.vlsergey.secan4j.data;
 
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
-import static java.util.Collections.singleton;
-import static java.util.stream.Collectors.toSet;
+import static java.util.Collections.unmodifiableMap;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
-import javassist.bytecode.BadBytecode;
-import javassist.bytecode.SignatureAttribute;
+import com.google.common.collect.ImmutableSet;
+
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 
+/**
+ * Configuration of classes. Configuration of each class is converted once (on
+ * first lookup) into immutable table of its members with annotation classes
+ * already resolved, so repeated lookups do not allocate anything. Returned sets
+ * and arrays are shared and shall not be modified.
+ */
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 public class SecanData {
 
-	private interface ClassConfigNode extends SimpleConfigNode {
-		default @NonNull Set<Class<?>> getAsForAnnotation() {
-			return getAsForSingleElement();
-		}
+	/**
+	 * Pre-resolved configuration of single class
+	 */
+	@AllArgsConstructor
+	private static class ClassTable {
 
-		default @NonNull Set<Class<?>> getForField(String fieldName, String signature) {
-			return getAsForSingleElement();
-		}
+		static final ClassTable EMPTY = new ClassTable(emptySet(), emptyMap());
 
-		default @NonNull Set<Class<?>>[] getForMethodArguments(String methodName, String signature) throws BadBytecode {
-			final int paramsLength = SignatureAttribute.toMethodSignature(signature).getParameterTypes().length;
+		/**
+		 * Configuration of class itself, also applies to all members of class
+		 * configured with single value
+		 */
+		final @NonNull Set<Class<?>> forClass;
 
-			@SuppressWarnings("unchecked")
-			Set<Class<?>>[] result = new Set[paramsLength];
-			Arrays.fill(result, emptySet());
-			return result;
-		}
-
-		default @NonNull Set<Class<?>> getForMethodResult(String methodName, String signature) {
-			return getAsForSingleElement();
-		}
+		final @NonNull Map<String, MemberTable> members;
 	}
 
-	static class EmptyConfigNode implements ClassConfigNode, MethodOverridesConfigNode, SimpleConfigNode {
+	/**
+	 * Pre-resolved configuration of field or all methods with the same name
+	 */
+	@AllArgsConstructor
+	private static class MemberTable {
 
-		static final EmptyConfigNode INSTANCE = new EmptyConfigNode();
+		/**
+		 * <code>null</code> if member is configured with single value (arguments
+		 * are not configured then) or with map without arguments (unsupported)
+		 */
+		final @Nullable Set<Class<?>>[] arguments;
 
-		@Override
-		public Set<Class<?>> getAsForSingleElement() {
-			return emptySet();
-		}
-	}
+		/**
+		 * Member is configured with map of method overrides, i.e. is not a field
+		 */
+		final boolean method;
 
-	@AllArgsConstructor
-	private static class ListData implements MethodOverridesConfigNode, ClassConfigNode, SimpleConfigNode {
+		/**
+		 * Results of specific method overrides by method signature
+		 */
+		final @NonNull Map<String, Set<Class<?>>> overrides;
 
-		private final @NonNull List<String> data;
+		final @NonNull Set<Class<?>> result;
+	}
 
-		@Override
-		public Set<Class<?>> getAsForSingleElement() {
-			return data.stream().map(SecanData::toAnnotationClass).collect(toSet());
-		}
+	/**
+	 * Shared arrays of empty arguments configuration by number of arguments
+	 */
+	private static final Set<Class<?>>[][] EMPTY_ARGUMENTS = createEmptyArguments();
 
-		@Override
-		public @NonNull Set<Class<?>> getForMethodResult(String signature) {
-			return data.stream().map(SecanData::toAnnotationClass).collect(toSet());
+	@SuppressWarnings("unchecked")
+	private static @NonNull Set<Class<?>>[][] createEmptyArguments() {
+		// JVM limits number of method parameters by 255
+		final Set<Class<?>>[][] result = new Set[256][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = new Set[i];
+			Arrays.fill(result[i], emptySet());
 		}
+		return result;
 	}
 
-	@AllArgsConstructor
-	private static class MapAsClassData implements ClassConfigNode {
-
-		private final @NonNull Map<String, ?> data;
-
-		@Override
-		public Set<Class<?>> getAsForSingleElement() {
-			return emptySet();
-		}
+	/**
+	 * @return shared array of empty sets, one per argument of method
+	 */
+	static @NonNull Set<Class<?>>[] emptyArguments(final @NonNull String signature) {
+		return EMPTY_ARGUMENTS[getParametersCount(signature)];
+	}
 
-		private MethodOverridesConfigNode getForMethod(String methodName) {
-			final Object forMethod = data.get(methodName);
-			if (forMethod == null) {
-				return EmptyConfigNode.INSTANCE;
+	/**
+	 * Counts parameters of method descriptor (or generic signature) without
+	 * parsing it into objects
+	 */
+	static int getParametersCount(final @NonNull String signature) {
+		int count = 0;
+		int i = signature.indexOf('(') + 1;
+		while (signature.charAt(i) != ')') {
+			while (signature.charAt(i) == '[') {
+				i++;
 			}
-
-			MethodOverridesConfigNode methodNode = toConfigNode(forMethod, StringData::new, ListData::new,
-					MapAsMethodOverridersData::new,
-					() -> new UnsupportedOperationException("Unsupported configuration format for method " + methodName
-							+ " (" + data.getClass().getName() + ")"));
-			return methodNode;
-		}
-
-		@Override
-		public @NonNull Set<Class<?>> getForField(String fieldName, String signature) {
-			return getForFieldImpl(fieldName, signature).getAsForSingleElement();
-		}
-
-		private SimpleConfigNode getForFieldImpl(String fieldName, String signature) {
-			final Object forField = data.get(fieldName);
-			if (forField == null) {
-				return EmptyConfigNode.INSTANCE;
+			if (signature.charAt(i) == 'L' || signature.charAt(i) == 'T') {
+				int depth = 0;
+				for (char c = signature.charAt(i); c != ';' || depth != 0; c = signature.charAt(++i)) {
+					if (c == '<') {
+						depth++;
+					} else if (c == '>') {
+						depth--;
+					}
+				}
 			}
-
-			SimpleConfigNode fieldNode = toConfigNode(forField, StringData::new, ListData::new, null,
-					() -> new UnsupportedOperationException("Unsupported configuration format for field " + fieldName
-							+ " (" + data.getClass().getName() + ")"));
-			return fieldNode;
-		}
-
-		@Override
-		public @NonNull Set<Class<?>>[] getForMethodArguments(String methodName, String signature) throws BadBytecode {
-			return getForMethod(methodName).getForMethodArguments(signature);
-		}
-
-		@Override
-		public Set<Class<?>> getForMethodResult(String methodName, String signature) {
-			return getForMethod(methodName).getForMethodResult(signature);
+			i++;
+			count++;
 		}
+		return count;
 	}
 
-	@AllArgsConstructor
-	private static class MapAsMethodOverridersData implements MethodOverridesConfigNode {
-
-		private final @NonNull Map<String, ?> data;
-
-		@Override
-		public @NonNull Set<Class<?>> getAsForSingleElement() {
-			if (data.containsKey("result")) {
-				return SecanData.<SimpleConfigNode>toConfigNode(data.get("result"), StringData::new, ListData::new,
-						(any) -> EmptyConfigNode.INSTANCE,
-						() -> new UnsupportedOperationException(
-								"Unsupported configuration format for result of method (" + data.getClass().getName()
-										+ ")"))
-						.getAsForSingleElement();
-			}
-			return emptySet();
+	@SuppressWarnings("unchecked")
+	private static @NonNull Set<Class<?>>[] toArguments(final @NonNull String member, final @NonNull Object src) {
+		if (!(src instanceof List)) {
+			throw new UnsupportedOperationException(
+					"Unsupported configuration format for arguments of method " + member + " (" + src + ")");
 		}
+		return ((List<?>) src).stream().map(argument -> argument == null ? null : toSet(member, argument, true))
+				.toArray(Set[]::new);
+	}
 
-		@Override
-		@SuppressWarnings("unchecked")
-		public @NonNull Set<Class<?>>[] getForMethodArguments(String signature) {
-			// TODO: support for overrides
-
-			if (data.containsKey("arguments")) {
-				// must be a list or a string
-				List<?> list = (List<?>) data.get("arguments");
-				// must be strings OR lists of strings
-				return list.stream().map(x -> x == null ? null
-						: SecanData
-								.toConfigNode(x, StringData::new, ListData::new, (any) -> EmptyConfigNode.INSTANCE,
-										() -> new UnsupportedOperationException(
-												"Unsupported configuration format for result of method override "
-														+ signature + " (" + data.getClass().getName() + ")"))
-								.getAsForSingleElement())
-						.toArray(Set[]::new);
-			}
-
-			throw new UnsupportedOperationException("Unsupported configuration format for result of method override "
-					+ signature + " (" + data.getClass().getName() + ")");
+	private static @NonNull MemberTable toMemberTable(final @NonNull String member, final @NonNull Object src) {
+		if (!(src instanceof Map)) {
+			return new MemberTable(null, false, emptyMap(), toSet(member, src, false));
 		}
 
-		@Override
-		public @NonNull Set<Class<?>> getForMethodResult(String signature) {
-			if (data.containsKey(signature)) {
-				return SecanData
-						.<SimpleConfigNode>toConfigNode(data.get(signature), StringData::new, ListData::new,
-								(any) -> EmptyConfigNode.INSTANCE,
-								() -> new UnsupportedOperationException(
-										"Unsupported configuration format for method override with signature '"
-												+ signature + "' (" + data.getClass().getName() + ")"))
-						.getAsForSingleElement();
+		final Map<?, ?> data = (Map<?, ?>) src;
+		final Map<String, Set<Class<?>>> overrides = new HashMap<>();
+		data.forEach((key, value) -> {
+			if (!"arguments".equals(key) && !"result".equals(key) && value != null) {
+				overrides.put(String.valueOf(key), toSet(member, value, true));
 			}
+		});
 
-			return getAsForSingleElement();
-		}
-
+		final Object result = data.get("result");
+		final Object arguments = data.get("arguments");
+		return new MemberTable(arguments == null ? null : toArguments(member, arguments), true,
+				overrides.isEmpty() ? emptyMap() : unmodifiableMap(overrides),
+				result == null ? emptySet() : toSet(member, result, true));
 	}
 
 	/**
-	 * Node for all methods with same name
+	 * @param mapAllowed whether map is allowed (and means no annotations)
 	 */
-	private interface MethodOverridesConfigNode extends SimpleConfigNode {
-
-		default @NonNull Set<Class<?>>[] getForMethodArguments(String signature) throws BadBytecode {
-			final int paramsLength = SignatureAttribute.toMethodSignature(signature).getParameterTypes().length;
-
-			@SuppressWarnings("unchecked")
-			Set<Class<?>>[] result = new Set[paramsLength];
-			Arrays.fill(result, emptySet());
-			return result;
+	@SneakyThrows
+	private static @NonNull Set<Class<?>> toSet(final @NonNull String element, final @NonNull Object src,
+			final boolean mapAllowed) {
+		if (src instanceof String) {
+			return ImmutableSet.of(toAnnotationClass((String) src));
 		}
-
-		default @NonNull Set<Class<?>> getForMethodResult(String signature) {
-			return getAsForSingleElement();
+		if (src instanceof List) {
+			final ImmutableSet.Builder<Class<?>> builder = ImmutableSet.builder();
+			for (Object name : (List<?>) src) {
+				builder.add(toAnnotationClass(String.valueOf(name)));
+			}
+			return builder.build();
 		}
+		if (src instanceof Map && mapAllowed) {
+			return emptySet();
+		}
+		throw new UnsupportedOperationException(
+				"Unsupported configuration format for " + element + " (" + src.getClass().getName() + ")");
 	}
 
-	private interface SimpleConfigNode {
-
-		@NonNull
-		Set<Class<?>> getAsForSingleElement();
-
+	@SneakyThrows
+	private static Class<?> toAnnotationClass(String str) {
+		return Class.forName(ConfigurationIndexCompiler.ANNOTATIONS_PACKAGE + str);
 	}
 
-	@AllArgsConstructor
-	private static class StringData implements ClassConfigNode, MethodOverridesConfigNode, SimpleConfigNode {
-
-		private final @NonNull String data;
-
-		@Override
-		public Set<Class<?>> getAsForSingleElement() {
-			return singleton(toAnnotationClass(data));
-		}
+	protected final Map<String, ?> data;
 
-		@Override
-		public @NonNull Set<Class<?>> getForMethodResult(String signature) {
-			return singleton(toAnnotationClass(data));
-		}
+	private final Map<String, ClassTable> tables = new ConcurrentHashMap<>();
 
+	public Set<Class<?>> getForAnnotation(String annotationClassName) {
+		return getTable(annotationClassName).forClass;
 	}
 
-	@SneakyThrows
-	private static Class<?> toAnnotationClass(String str) {
-		return Class.forName("io.github.vlsergey.secan4j.annotations." + str);
+	public Set<Class<?>> getForField(String fqcn, String fieldName, String signature) {
+		final ClassTable table = getTable(fqcn);
+		final MemberTable member = table.members.get(fieldName);
+		if (member == null) {
+			return table.forClass;
+		}
+		if (member.method) {
+			throw new UnsupportedOperationException(
+					"Unsupported configuration format for field " + fieldName + " of " + fqcn);
+		}
+		return member.result;
 	}
 
-	@SuppressWarnings("unchecked")
-	private static <T> T toConfigNode(final @NonNull Object src, final @NonNull Function<String, T> fromString,
-			final @NonNull Function<List<String>, T> fromList, final @Nullable Function<Map<String, ?>, T> fromMap,
-			final @NonNull Supplier<UnsupportedOperationException> exc) {
-		if (src instanceof String) {
-			return fromString.apply((String) src);
-		}
-		if (src instanceof List) {
-			return fromList.apply((List<String>) src);
+	public Set<Class<?>>[] getForMethodArguments(String fqcn, String methodName, String signature) {
+		final MemberTable member = getTable(fqcn).members.get(methodName);
+		if (member == null || !member.method) {
+			return emptyArguments(signature);
 		}
-		if (src instanceof Map && fromMap != null) {
-			return fromMap.apply((Map<String, ?>) src);
+		if (member.arguments == null) {
+			throw new UnsupportedOperationException("Unsupported configuration format for result of method override "
+					+ signature + " of " + fqcn + "." + methodName);
 		}
-		throw exc.get();
+		return member.arguments;
 	}
 
-	// TODO: compact
-	protected final Map<String, ?> data;
+	public Set<Class<?>> getForMethodResult(String fqcn, String methodName, String signature) {
+		final ClassTable table = getTable(fqcn);
+		final MemberTable member = table.members.get(methodName);
+		if (member == null) {
+			return table.forClass;
+		}
+		return member.overrides.getOrDefault(signature, member.result);
+	}
 
-	public Set<Class<?>> getForAnnotation(String annotationClassName) {
-		return getForClass(annotationClassName).getAsForAnnotation();
+	private @NonNull ClassTable getTable(final @NonNull String fqcn) {
+		if (data.isEmpty()) {
+			// shared instance for all classes without configuration
+			return ClassTable.EMPTY;
+		}
+		final ClassTable table = tables.get(fqcn);
+		return table != null ? table : tables.computeIfAbsent(fqcn, this::toClassTable);
 	}
 
-	private @NonNull ClassConfigNode getForClass(String fqcn) {
+	private @NonNull ClassTable toClassTable(final @NonNull String fqcn) {
 		Object currentNode = data;
 
 		int afterPrevDot = 0;
@@ -264,32 +242,27 @@ public class SecanData {
 				afterPrevDot = charIndex + 1;
 
 				// TODO: handle case for package-wide defaults
-				final Map<?, ?> asMap = (Map<?, ?>) currentNode;
-				if (!asMap.containsKey(token)) {
-					return EmptyConfigNode.INSTANCE;
+				if (!(currentNode instanceof Map) || !((Map<?, ?>) currentNode).containsKey(token)) {
+					return ClassTable.EMPTY;
 				}
-				currentNode = asMap.get(token);
+				currentNode = ((Map<?, ?>) currentNode).get(token);
 			}
 		}
 
-		return toConfigNode(currentNode, StringData::new, ListData::new, MapAsClassData::new,
-				() -> new UnsupportedOperationException(
-						"Unsupported configuration format for " + fqcn + " (" + data.getClass().getName() + ")"));
-	}
-
-	@SneakyThrows
-	public Set<Class<?>> getForField(String fqcn, String fieldName, String signature) {
-		return getForClass(fqcn).getForField(fieldName, signature);
-	}
-
-	@SneakyThrows
-	public Set<Class<?>>[] getForMethodArguments(String fqcn, String methodName, String signature) {
-		return getForClass(fqcn).getForMethodArguments(methodName, signature);
-	}
+		if (currentNode == null) {
+			return ClassTable.EMPTY;
+		}
+		if (!(currentNode instanceof Map)) {
+			return new ClassTable(toSet(fqcn, currentNode, false), emptyMap());
+		}
 
-	@SneakyThrows
-	public Set<Class<?>> getForMethodResult(String fqcn, String methodName, String signature) {
-		return getForClass(fqcn).getForMethodResult(methodName, signature);
+		final Map<String, MemberTable> members = new HashMap<>();
+		((Map<?, ?>) currentNode).forEach((member, value) -> {
+			if (value != null) {
+				members.put(String.valueOf(member), toMemberTable(fqcn + "." + member, value));
+			}
+		});
+		return new ClassTable(emptySet(), unmodifiableMap(members));
 	}
 
 }
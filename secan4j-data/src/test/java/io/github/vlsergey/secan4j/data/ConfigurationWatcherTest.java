@@ -0,0 +1,38 @@
+package io.github.vlsergey.secan4j.data;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.vlsergey.secan4j.annotations.Command;
+
+class ConfigurationWatcherTest {
+
+	@Test
+	void testReloadsChangedConfiguration(final @TempDir Path directory) throws Exception {
+		final DataProvider dataProvider = new DataProvider(singletonList(directory));
+		dataProvider.preload();
+
+		final BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+		dataProvider.addChangeListener(changes::add);
+
+		try (ConfigurationWatcher watcher = new ConfigurationWatcher(dataProvider)) {
+			Files.writeString(directory.resolve("com.example.yaml"), "Dao: Command\n");
+
+			assertEquals(singleton("com.example"), changes.poll(30, TimeUnit.SECONDS));
+			assertEquals(singleton(Command.class),
+					dataProvider.getForMethodResult("com.example.Dao", "query", "()Ljava/lang/String;"));
+		}
+	}
+
+}
@@ -0,0 +1,29 @@
+package io.github.vlsergey.secan4j.data;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.bind.annotation.RequestParam;
+
+class ConfiguredClassesFilterTest {
+
+	@Test
+	void testMayBeConfigured() {
+		final ConfiguredClassesFilter filter = ConfiguredClassesFilter
+				.build(ConfigurationResources.find(DataProvider.class.getClassLoader()));
+
+		assertTrue(filter.mayBeConfigured(Connection.class.getName()));
+		assertTrue(filter.mayBeConfigured(ResultSet.class.getName()));
+		assertTrue(filter.mayBeConfigured(RequestParam.class.getName()));
+		assertTrue(filter.mayBeConfigured(System.class.getName()));
+
+		assertFalse(filter.mayBeConfigured(Object.class.getName()));
+		assertFalse(filter.mayBeConfigured("java.sql.connection"));
+		assertFalse(filter.mayBeConfigured("com.example.Foo"));
+	}
+
+}
@@ -1,15 +1,34 @@
 package io.github.vlsergey.secan4j.data;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import io.github.vlsergey.secan4j.annotations.Command;
+import io.github.vlsergey.secan4j.annotations.UserProvided;
 import io.github.vlsergey.secan4j.data.DataProvider.ResourcePathCandidate;
 
 class DataProviderTest {
@@ -40,4 +59,114 @@ class DataProviderTest {
 		), actual);
 	}
 
+	private static final String DAO_CONFIGURATION = "Dao:\n  query:\n    arguments:\n    - Command\n";
+
+	private static final String DAO_SIGNATURE = "(Ljava/lang/String;)V";
+
+	@Test
+	void testConfigurationSourceDirectory(final @TempDir Path directory) throws Exception {
+		Files.writeString(directory.resolve("com.example.yaml"), DAO_CONFIGURATION);
+		// replaces class path file
+		Files.writeString(directory.resolve("java.sql.yaml"), "Statement: Command\n");
+
+		final DataProvider dataProvider = new DataProvider(singletonList(directory));
+		assertEquals(singleton(Command.class),
+				dataProvider.getForMethodArguments("com.example.Dao", "query", DAO_SIGNATURE)[0]);
+		assertEquals(emptySet(), dataProvider.getForMethodResult(ResultSet.class.getName(), "getString", "()V"));
+		assertEquals(singleton(Command.class),
+				dataProvider.getForMethodResult("java.sql.Statement", "execute", DAO_SIGNATURE));
+		assertFalse(dataProvider.getConfigurationVersion().equals(new DataProvider().getConfigurationVersion()));
+	}
+
+	@Test
+	void testConfigurationSourceJar(final @TempDir Path directory) throws Exception {
+		final Path jar = directory.resolve("configuration.jar");
+		try (OutputStream os = Files.newOutputStream(jar); JarOutputStream jos = new JarOutputStream(os)) {
+			jos.putNextEntry(new JarEntry(ConfigurationResources.DIRECTORY + "com.example.yaml"));
+			jos.write(DAO_CONFIGURATION.getBytes(UTF_8));
+			jos.closeEntry();
+		}
+
+		final DataProvider dataProvider = new DataProvider(singletonList(jar));
+		assertEquals(singleton(Command.class),
+				dataProvider.getForMethodArguments("com.example.Dao", "query", DAO_SIGNATURE)[0]);
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void testReload(final boolean preload, final @TempDir Path directory) throws Exception {
+		final Path file = directory.resolve("com.example.yaml");
+		Files.writeString(file, DAO_CONFIGURATION);
+
+		final DataProvider dataProvider = new DataProvider(singletonList(directory));
+		if (preload) {
+			dataProvider.preload();
+		}
+		final SecanData sqlData = dataProvider.getDataForClass(ResultSet.class.getName());
+		final String sqlHash = dataProvider.getConfigurationHash(ResultSet.class.getName());
+		final String daoHash = dataProvider.getConfigurationHash("com.example.Dao");
+		assertEquals(singleton(Command.class),
+				dataProvider.getForMethodArguments("com.example.Dao", "query", DAO_SIGNATURE)[0]);
+		assertEquals(emptySet(), dataProvider.reload());
+
+		Files.writeString(file, DAO_CONFIGURATION.replace("query", "update"));
+		assertEquals(singleton("com.example"), dataProvider.reload());
+
+		assertEquals(emptySet(), dataProvider.getForMethodArguments("com.example.Dao", "query", DAO_SIGNATURE)[0]);
+		assertEquals(singleton(Command.class),
+				dataProvider.getForMethodArguments("com.example.Dao", "update", DAO_SIGNATURE)[0]);
+		assertFalse(daoHash.equals(dataProvider.getConfigurationHash("com.example.Dao")));
+
+		// configuration of other packages is kept
+		assertEquals(sqlHash, dataProvider.getConfigurationHash(ResultSet.class.getName()));
+		if (!preload) {
+			assertSame(sqlData, dataProvider.getDataForClass(ResultSet.class.getName()));
+		}
+		assertEquals(singleton(UserProvided.class),
+				dataProvider.getForMethodResult(ResultSet.class.getName(), "getString", "()V"));
+
+		Files.delete(file);
+		assertEquals(singleton("com.example"), dataProvider.reload());
+		assertEquals(emptySet(), dataProvider.getForMethodArguments("com.example.Dao", "update", DAO_SIGNATURE)[0]);
+		assertEquals("", dataProvider.getConfigurationHash("com.example.Dao"));
+	}
+
+	@Test
+	void testIsInPackages() {
+		assertTrue(DataProvider.isInPackages("com.example.Dao", singleton("com")));
+		assertTrue(DataProvider.isInPackages("com.example.Dao", singleton("com.example")));
+		assertFalse(DataProvider.isInPackages("com.example.Dao", singleton("com.example.Dao")));
+		assertFalse(DataProvider.isInPackages("com.examples.Dao", singleton("com.example")));
+	}
+
+	@Test
+	void testGetConfigurationVersion() {
+		final String version = new DataProvider().getConfigurationVersion();
+		assertEquals(64, version.length());
+		assertEquals(version, new DataProvider().getConfigurationVersion());
+	}
+
+	@Test
+	void testFindConfigurationResources() {
+		assertTrue(ConfigurationResources.find(DataProvider.class.getClassLoader()).keySet()
+				.containsAll(Arrays.asList("java.lang.yaml", "java.sql.yaml", "org.springframework.web.yaml")));
+	}
+
+	@Test
+	void testPreload() {
+		final DataProvider dataProvider = new DataProvider();
+		dataProvider.preload();
+
+		final SecanData data = dataProvider.getDataForClass(Connection.class.getName());
+		assertTrue(data instanceof IndexedSecanData);
+		assertSame(data, dataProvider.getDataForClass(RequestParam.class.getName()));
+		assertEquals(0, dataProvider.getClassDataCacheStats().requestCount());
+	}
+
+	@Test
+	void testCompileSnapshot() {
+		final DataProvider dataProvider = new DataProvider();
+		assertEquals(dataProvider.getConfigurationVersion(), dataProvider.compileSnapshot().getConfigurationVersion());
+	}
+
 }
@@ -0,0 +1,86 @@
+package io.github.vlsergey.secan4j.data;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import io.github.vlsergey.secan4j.annotations.Command;
+import io.github.vlsergey.secan4j.annotations.UserProvided;
+import javassist.ClassPool;
+import javassist.CtMethod;
+
+class IndexedSecanDataTest {
+
+	private static IndexedSecanData compile(final Path directory) throws Exception {
+		return new IndexedSecanData(ByteBuffer
+				.wrap(new ConfigurationIndexCompiler().compile(ConfigurationResources.find(directory.toFile()))));
+	}
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testDeeperPackageHidesEnclosingOne() throws Exception {
+		Files.writeString(directory.resolve("com.yaml"), "example:\n  Foo: UserProvided\n  Bar: UserProvided\n");
+		Files.writeString(directory.resolve("com.example.yaml"), "Foo: Command\n");
+
+		final IndexedSecanData data = compile(directory);
+		assertEquals(singleton(Command.class), data.getForAnnotation("com.example.Foo"));
+		assertEquals(emptySet(), data.getForAnnotation("com.example.Bar"));
+	}
+
+	@Test
+	void testIndexIsUsedByDataProvider() {
+		assertTrue(new DataProvider().getDataForClass(Connection.class.getName()) instanceof IndexedSecanData);
+	}
+
+	@Test
+	void testSameAsYaml() throws Exception {
+		final DataProvider dataProvider = new DataProvider();
+		final SecanData indexed = dataProvider.getDataForClass(Connection.class.getName());
+
+		for (Class<?> cls : new Class<?>[] { CookieValue.class, RequestParam.class, String.class }) {
+			assertEquals(dataProvider.getDataForClassImpl(cls.getName()).getForAnnotation(cls.getName()),
+					indexed.getForAnnotation(cls.getName()));
+		}
+
+		assertEquals(dataProvider.getDataForClassImpl("java.lang.String").getForField("java.lang.String", "value",
+				"[B"), indexed.getForField("java.lang.String", "value", "[B"));
+		assertEquals(singleton(UserProvided.class),
+				indexed.getForMethodResult(ResultSet.class.getName(), "getString", "(I)Ljava/lang/String;"));
+
+		final ClassPool classPool = new ClassPool(true);
+		for (CtMethod ctMethod : new CtMethod[] { classPool.getMethod(System.class.getName(), "arraycopy"),
+				classPool.getMethod(Connection.class.getName(), "prepareStatement"),
+				classPool.getMethod(String.class.getName(), "trim") }) {
+			final String className = ctMethod.getDeclaringClass().getName();
+			final SecanData yaml = dataProvider.getDataForClassImpl(className);
+
+			assertArrayEquals(yaml.getForMethodArguments(className, ctMethod.getName(), ctMethod.getSignature()),
+					indexed.getForMethodArguments(className, ctMethod.getName(), ctMethod.getSignature()));
+			assertEquals(yaml.getForMethodResult(className, ctMethod.getName(), ctMethod.getSignature()),
+					indexed.getForMethodResult(className, ctMethod.getName(), ctMethod.getSignature()));
+		}
+	}
+
+	@Test
+	void testUnknownAnnotationIsRejected() throws Exception {
+		Files.writeString(directory.resolve("com.example.yaml"), "Foo: NoSuchAnnotation\n");
+		assertThrows(IllegalArgumentException.class, () -> compile(directory));
+	}
+
+}
@@ -2,6 +2,7 @@ package io.github.vlsergey.secan4j.data;
 
 import static java.util.Collections.singleton;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.sql.Connection;
 import java.util.Set;
@@ -47,4 +48,24 @@ class SecanDataTest {
 		assertEquals(singleton(Command.class), args[0]);
 	}
 
+	@Test
+	void testGetParametersCount() {
+		assertEquals(0, SecanData.getParametersCount("()V"));
+		assertEquals(4, SecanData.getParametersCount("(I[JLjava/lang/String;[[Ljava/util/List;)V"));
+		assertEquals(2, SecanData.getParametersCount("<T:Ljava/lang/Object;>(Ljava/util/Map<TT;[TT;>;TT;)V"));
+	}
+
+	@Test
+	void testLookupsAreShared() {
+		final @NonNull SecanData data = new DataProvider().getDataForClassImpl(System.class.getName());
+		final String signature = "(Ljava/lang/Object;ILjava/lang/Object;II)V";
+
+		assertSame(data.getForMethodArguments(System.class.getName(), "arraycopy", signature),
+				data.getForMethodArguments(System.class.getName(), "arraycopy", signature));
+		assertSame(data.getForMethodArguments(System.class.getName(), "exit", "(I)V"),
+				data.getForMethodArguments(System.class.getName(), "gc", "(Z)V"));
+		assertSame(data.getForMethodResult(System.class.getName(), "arraycopy", signature),
+				data.getForMethodResult(System.class.getName(), "arraycopy", signature));
+	}
+
 }